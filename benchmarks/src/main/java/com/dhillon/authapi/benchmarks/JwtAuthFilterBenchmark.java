@@ -0,0 +1,75 @@
+package com.dhillon.authapi.benchmarks;
+
+import com.dhillon.authapi.audit.AuthAuditLog;
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.security.JwtAuthFilter;
+import com.dhillon.authapi.security.JwtKeyRing;
+import com.dhillon.authapi.security.JwtUtil;
+import com.dhillon.authapi.security.SigningKeyStore;
+import com.dhillon.authapi.security.TokenRevocationList;
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full pass of {@link JwtAuthFilter} for a bearer-authenticated request. {@code cacheEntries = 0}
+ * disables the verified-token cache, so every pass checks the signature.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"0", "100000"})
+    public long cacheEntries;
+
+    private AuthAuditLog auditLog;
+    private JwtAuthFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        User user = new User(new ObjectId().toHexString(), "user", "user@example.com", null, true, Set.of("ROLE_USER"));
+        JwtUtil jwtUtil = new JwtUtil(new JwtKeyRing(SigningKeyStore.inMemory(),
+                "ReplaceThisWithAStrongSecretKey", 604800000, 3600000, 900000), 900000);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        auditLog = new AuthAuditLog(meterRegistry, 8192, "", 100, 10000);
+        // The revocation list is never synced here, so it needs no repository
+        filter = new JwtAuthFilter(new VerifiedTokenCache(jwtUtil, cacheEntries), new AuthMetrics(meterRegistry),
+                new TokenRevocationList(null, meterRegistry, 900000), auditLog);
+        authorization = "Bearer " + jwtUtil.generateToken(user.id(), user.email(), user.roles());
+    }
+
+    // Each trial starts its own audit writer thread; stop it so later trials don't share the CPU with it
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        auditLog.shutdown();
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/resource");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
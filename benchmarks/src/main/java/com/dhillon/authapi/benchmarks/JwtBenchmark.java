@@ -0,0 +1,65 @@
+package com.dhillon.authapi.benchmarks;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.security.JwtKeyRing;
+import com.dhillon.authapi.security.JwtUtil;
+import com.dhillon.authapi.security.SigningKeyStore;
+import com.dhillon.authapi.security.VerifiedToken;
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token signing and verification. {@code emailLength} varies the size of the claims payload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    @Param({"16", "64", "256"})
+    public int emailLength;
+
+    private JwtUtil jwtUtil;
+    private VerifiedTokenCache tokenCache;
+    private String userId;
+    private String email;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        String domain = "@example.com";
+        jwtUtil = new JwtUtil(new JwtKeyRing(SigningKeyStore.inMemory(),
+                "ReplaceThisWithAStrongSecretKey", 604800000, 3600000, 900000), 900000);
+        tokenCache = new VerifiedTokenCache(jwtUtil, 10000);
+        userId = new ObjectId().toHexString();
+        email = "u".repeat(Math.max(1, emailLength - domain.length())) + domain;
+        token = jwtUtil.generateToken(userId, email, User.DEFAULT_ROLES);
+        tokenCache.verify(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userId, email, User.DEFAULT_ROLES);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUserIdFromToken() {
+        return jwtUtil.getUserIdFromToken(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCached() {
+        return tokenCache.verify(token);
+    }
+}
@@ -0,0 +1,117 @@
+package com.dhillon.authapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Calls the API and records each call against its endpoint. Latency is measured from the moment
+ * the request was meant to go out, not when it actually did, so a stalled client or server shows
+ * up in the histogram instead of silently lowering the request rate.
+ */
+final class AuthClient {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI target;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    AuthClient(URI target) {
+        this.target = target;
+        for (String endpoint : new String[] {"register", "email", "verify", "login", "refresh", "logout", "jwks"}) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    Iterable<EndpointStats> stats() {
+        return stats.values();
+    }
+
+    Response register(String username, String email, String password, long intendedStart) {
+        return send("register", post("/api/auth/register", Map.of("username", username, "email", email, "password", password)), intendedStart);
+    }
+
+    Response verify(String token, long intendedStart) {
+        return send("verify", HttpRequest.newBuilder(uri("/api/auth/verify?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8))).GET(), intendedStart);
+    }
+
+    Response login(String email, String password, long intendedStart) {
+        return send("login", post("/api/auth/login", Map.of("email", email, "password", password)), intendedStart);
+    }
+
+    Response refresh(String refreshToken, long intendedStart) {
+        return send("refresh", post("/api/auth/refresh", Map.of("refreshToken", refreshToken)), intendedStart);
+    }
+
+    Response logout(String accessToken, String refreshToken, long intendedStart) {
+        return send("logout", post("/api/auth/logout", Map.of("refreshToken", refreshToken))
+                .header("Authorization", "Bearer " + accessToken), intendedStart);
+    }
+
+    Response jwks(long intendedStart) {
+        return send("jwks", HttpRequest.newBuilder(uri("/.well-known/jwks.json")).GET(), intendedStart);
+    }
+
+    /**
+     * Records how long a verification email took to reach the sink after registration returned.
+     */
+    void recordEmail(long intendedStart, boolean delivered) {
+        stats.get("email").record(System.nanoTime() - intendedStart, delivered ? 250 : EndpointStats.NO_RESPONSE, delivered);
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder request, long intendedStart) {
+        int status = EndpointStats.NO_RESPONSE;
+        JsonNode body = MissingNode.getInstance();
+        try {
+            HttpResponse<byte[]> response = http.send(request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofByteArray());
+            status = response.statusCode();
+            if (response.body().length > 0) {
+                body = MAPPER.readTree(response.body());
+            }
+        } catch (IOException e) {
+            // Counted as NO_RESPONSE (or an unparseable body) below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean ok = status >= 200 && status < 300;
+        stats.get(endpoint).record(System.nanoTime() - intendedStart, status, ok);
+        return new Response(ok, body);
+    }
+
+    private HttpRequest.Builder post(String path, Map<String, String> body) {
+        try {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialise request body", e);
+        }
+    }
+
+    private URI uri(String path) {
+        return target.resolve(path);
+    }
+
+    record Response(boolean ok, JsonNode body) {
+        String text(String field) {
+            return body.path(field).asText(null);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.dhillon.authapi.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and status-code counts for one endpoint. Recording is wait-free, so callers
+ * on any number of threads do not disturb each other's timings.
+ */
+final class EndpointStats {
+    // Status recorded when no HTTP response arrived at all
+    static final int NO_RESPONSE = -1;
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final String name;
+    private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(long latencyNanos, int status, boolean ok) {
+        recorder.recordValue(Math.min(Math.max(latencyNanos, 0), MAX_LATENCY_NANOS));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (!ok) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Discards everything recorded so far, used when warmup ends.
+     */
+    void reset() {
+        recorder.reset();
+        statuses.clear();
+        errors.reset();
+    }
+
+    Snapshot snapshot() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return new Snapshot(name, recorder.getIntervalHistogram(), counts, errors.sum());
+    }
+
+    record Snapshot(String name, Histogram histogram, Map<Integer, Long> statuses, long errors) {}
+}
@@ -0,0 +1,226 @@
+package com.dhillon.authapi.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives an open-model load against a running instance: sessions start on a fixed or Poisson
+ * schedule whatever the server's response times, so a slow server faces a growing backlog
+ * instead of a politely slowed-down client.
+ */
+public final class LoadTest {
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final LoadTestConfig config;
+    private final AuthClient client;
+    private final Sessions sessions;
+    private final Map<Scenario, Counts> counts = new EnumMap<>(Scenario.class);
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+
+    private LoadTest(LoadTestConfig config, SmtpSink sink) {
+        this.config = config;
+        this.client = new AuthClient(config.target());
+        this.sessions = new Sessions(client, sink, config);
+        List<Scenario> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Scenario, Integer> entry : config.mix().entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                weighted.add(entry.getKey());
+                cumulative.add(total);
+            }
+        }
+        this.scenarios = weighted.toArray(Scenario[]::new);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+        for (Scenario scenario : Scenario.values()) {
+            counts.put(scenario, new Counts());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        try (SmtpSink sink = new SmtpSink(config.smtpPort())) {
+            new LoadTest(config, sink).run();
+        }
+    }
+
+    private void run() throws InterruptedException, IOException {
+        if (config.mix().getOrDefault(Scenario.LOGIN, 0) > 0) {
+            provision();
+        }
+        long measuredNanos = drive();
+        report(measuredNanos);
+    }
+
+    /**
+     * Signs up the accounts that login sessions use, outside of measurement.
+     */
+    private void provision() throws InterruptedException {
+        System.out.printf("Provisioning %d verified users against %s%n", config.users(), config.target());
+        Semaphore permits = new Semaphore(config.provisionConcurrency());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.users(); i++) {
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        sessions.run(Scenario.SIGNUP, System.nanoTime());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        if (sessions.verifiedUsers() == 0) {
+            throw new IllegalStateException("No users could be provisioned; is the instance up, sending mail to port "
+                    + config.smtpPort() + " and running with raised rate limits?");
+        }
+        System.out.printf("Provisioned %d of %d users%n", sessions.verifiedUsers(), config.users());
+        client.stats().forEach(EndpointStats::reset);
+    }
+
+    /**
+     * Starts sessions on schedule through warmup and measurement, then waits for the stragglers.
+     * Returns the length of the measured window.
+     */
+    private long drive() throws InterruptedException {
+        Semaphore inFlight = new Semaphore(config.maxSessions());
+        double meanIntervalNanos = NANOS_PER_SECOND / config.rate();
+        long start = System.nanoTime();
+        long warmupEnd = start + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+        boolean measuring = config.warmup().isZero();
+        System.out.printf("Warming up for %ds at %.1f sessions/s%n", config.warmup().toSeconds(), config.rate());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = start;
+            while (next < end) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                if (!measuring && next >= warmupEnd) {
+                    client.stats().forEach(EndpointStats::reset);
+                    counts.values().forEach(Counts::reset);
+                    measuring = true;
+                    System.out.printf("Measuring for %ds%n", config.duration().toSeconds());
+                }
+                Scenario scenario = pick();
+                Counts scenarioCounts = counts.get(scenario);
+                if (inFlight.tryAcquire()) {
+                    long arrival = next;
+                    // Warmup sessions that finish after measurement starts are left out of the session counts
+                    boolean counted = measuring;
+                    scenarioCounts.started.increment();
+                    executor.execute(() -> {
+                        try {
+                            boolean ok = sessions.run(scenario, arrival);
+                            if (counted) {
+                                (ok ? scenarioCounts.succeeded : scenarioCounts.failed).increment();
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } else {
+                    scenarioCounts.dropped.increment();
+                }
+                next += config.poisson()
+                        ? (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos)
+                        : (long) meanIntervalNanos;
+            }
+            System.out.println("Waiting for in-flight sessions to finish");
+            executor.shutdown();
+            if (!executor.awaitTermination(config.emailTimeout().toSeconds() + 60, TimeUnit.SECONDS)) {
+                System.out.println("Some sessions did not finish and are left out of the report");
+                executor.shutdownNow();
+            }
+        }
+        return end - (measuring ? warmupEnd : start);
+    }
+
+    private Scenario pick() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private void report(long measuredNanos) throws IOException {
+        double seconds = measuredNanos / NANOS_PER_SECOND;
+        PrintStream out = System.out;
+        out.printf("%nSessions over %.0fs%n", seconds);
+        out.printf("%-8s %9s %9s %9s %9s%n", "scenario", "started", "ok", "failed", "dropped");
+        counts.forEach((scenario, c) -> {
+            if (c.started.sum() + c.dropped.sum() > 0) {
+                out.printf("%-8s %9d %9d %9d %9d%n", scenario.name().toLowerCase(), c.started.sum(),
+                        c.succeeded.sum(), c.failed.sum(), c.dropped.sum());
+            }
+        });
+        out.printf("%nRequests (latency in ms, from intended send time)%n");
+        out.printf("%-8s %9s %8s %9s %8s %8s %8s %8s %8s  %s%n",
+                "endpoint", "count", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max", "statuses");
+        if (config.histograms() != null) {
+            Files.createDirectories(config.histograms());
+        }
+        for (EndpointStats stats : client.stats()) {
+            EndpointStats.Snapshot snapshot = stats.snapshot();
+            long count = snapshot.histogram().getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            out.printf("%-8s %9d %8d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f  %s%n",
+                    snapshot.name(), count, snapshot.errors(), count / seconds,
+                    millis(snapshot, 50), millis(snapshot, 90), millis(snapshot, 99), millis(snapshot, 99.9),
+                    snapshot.histogram().getMaxValue() / NANOS_PER_MILLI, snapshot.statuses());
+            if (config.histograms() != null) {
+                try (PrintStream file = new PrintStream(Files.newOutputStream(config.histograms().resolve(snapshot.name() + ".hgrm")))) {
+                    snapshot.histogram().outputPercentileDistribution(file, NANOS_PER_MILLI);
+                }
+            }
+        }
+    }
+
+    private static double millis(EndpointStats.Snapshot snapshot, double percentile) {
+        return snapshot.histogram().getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    private static final class Counts {
+        final LongAdder started = new LongAdder();
+        final LongAdder succeeded = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        void reset() {
+            started.reset();
+            succeeded.reset();
+            failed.reset();
+            dropped.reset();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dhillon.authapi.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings for a run, parsed from {@code --name=value} arguments. Durations accept {@code ms},
+ * {@code s} and {@code m} suffixes.
+ */
+record LoadTestConfig(
+        URI target,
+        int smtpPort,
+        double rate,
+        boolean poisson,
+        Map<Scenario, Integer> mix,
+        int users,
+        int provisionConcurrency,
+        Duration warmup,
+        Duration duration,
+        Duration thinkTime,
+        Duration emailTimeout,
+        int maxSessions,
+        String password,
+        Path histograms
+) {
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [--name=value ...]
+              --target=http://localhost:8082   base URL of the running instance
+              --smtp-port=3025                 port of the fake SMTP sink the instance sends mail to
+              --rate=20                        sessions started per second (open model)
+              --arrivals=poisson               poisson or uniform inter-arrival times
+              --mix=signup:1,login:8,jwks:1    relative weight of each scenario
+              --users=50                       verified accounts provisioned before warmup for login sessions
+              --provision-concurrency=8        parallel signups while provisioning
+              --warmup=30s                     arrivals before measurement starts
+              --duration=60s                   measured arrivals
+              --think-time=0ms                 pause between requests in a session
+              --email-timeout=30s              how long to wait for a verification email
+              --max-sessions=10000             in-flight sessions; arrivals beyond this are dropped
+              --password=LoadTest#Password1    password used for every generated account
+              --histograms=DIR                 also write each endpoint's percentile distribution to DIR
+            """;
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        String arrivals = values.getOrDefault("arrivals", "poisson");
+        if (!arrivals.equals("poisson") && !arrivals.equals("uniform")) {
+            throw new IllegalArgumentException("--arrivals must be poisson or uniform");
+        }
+        LoadTestConfig config = new LoadTestConfig(
+                URI.create(values.getOrDefault("target", "http://localhost:8082")),
+                Integer.parseInt(values.getOrDefault("smtp-port", "3025")),
+                Double.parseDouble(values.getOrDefault("rate", "20")),
+                arrivals.equals("poisson"),
+                mix(values.getOrDefault("mix", "signup:1,login:8,jwks:1")),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                Integer.parseInt(values.getOrDefault("provision-concurrency", "8")),
+                duration(values.getOrDefault("warmup", "30s")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("think-time", "0ms")),
+                duration(values.getOrDefault("email-timeout", "30s")),
+                Integer.parseInt(values.getOrDefault("max-sessions", "10000")),
+                values.getOrDefault("password", "LoadTest#Password1"),
+                values.containsKey("histograms") ? Path.of(values.get("histograms")) : null);
+        if (config.rate() <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        if (config.mix().getOrDefault(Scenario.LOGIN, 0) > 0 && config.users() <= 0) {
+            throw new IllegalArgumentException("login sessions need --users greater than 0");
+        }
+        return config;
+    }
+
+    private static Map<Scenario, Integer> mix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight in --mix but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Scenario weights must not be negative: " + entry);
+            }
+            mix.put(Scenario.valueOf(parts[0].toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("--mix needs at least one scenario with a positive weight");
+        }
+        return mix;
+    }
+
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Durations need an ms, s or m suffix: " + value);
+    }
+}
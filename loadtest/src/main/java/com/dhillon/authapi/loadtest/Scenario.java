@@ -0,0 +1,13 @@
+package com.dhillon.authapi.loadtest;
+
+/**
+ * The kinds of session a run mixes together.
+ */
+enum Scenario {
+    /** Register a new account, wait for its email, verify, log in, refresh and log out. */
+    SIGNUP,
+    /** Log in as a provisioned account, refresh and log out. */
+    LOGIN,
+    /** Fetch the published signing keys, as a resource server would. */
+    JWKS
+}
@@ -0,0 +1,103 @@
+package com.dhillon.authapi.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs one session of a {@link Scenario}. Each step after the first is timed from when the
+ * previous one finished plus the think time.
+ */
+final class Sessions {
+    private final AuthClient client;
+    private final SmtpSink sink;
+    private final String password;
+    private final Duration thinkTime;
+    private final Duration emailTimeout;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<String> verifiedEmails = new CopyOnWriteArrayList<>();
+
+    Sessions(AuthClient client, SmtpSink sink, LoadTestConfig config) {
+        this.client = client;
+        this.sink = sink;
+        this.password = config.password();
+        this.thinkTime = config.thinkTime();
+        this.emailTimeout = config.emailTimeout();
+    }
+
+    int verifiedUsers() {
+        return verifiedEmails.size();
+    }
+
+    /**
+     * Returns true if every step of the session succeeded.
+     */
+    boolean run(Scenario scenario, long arrival) {
+        return switch (scenario) {
+            case SIGNUP -> signup(arrival);
+            case LOGIN -> login(verifiedEmails.get(ThreadLocalRandom.current().nextInt(verifiedEmails.size())), arrival);
+            case JWKS -> client.jwks(arrival).ok();
+        };
+    }
+
+    private boolean signup(long arrival) {
+        long id = sequence.incrementAndGet();
+        String email = "lt-" + runId + "-" + id + "@loadtest.invalid";
+        if (!client.register("lt-" + runId + "-" + id, email, password, arrival).ok()) {
+            sink.forget(email);
+            return false;
+        }
+        long registered = System.nanoTime();
+        String token;
+        try {
+            token = sink.verificationToken(email).get(emailTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            client.recordEmail(registered, true);
+        } catch (TimeoutException | ExecutionException e) {
+            client.recordEmail(registered, false);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            sink.forget(email);
+        }
+        if (!client.verify(token, pause()).ok()) {
+            return false;
+        }
+        verifiedEmails.add(email);
+        return login(email, pause());
+    }
+
+    private boolean login(String email, long start) {
+        AuthClient.Response login = client.login(email, password, start);
+        if (!login.ok()) {
+            return false;
+        }
+        AuthClient.Response refresh = client.refresh(login.text("refreshToken"), pause());
+        if (!refresh.ok()) {
+            return false;
+        }
+        return client.logout(refresh.text("token"), refresh.text("refreshToken"), pause()).ok();
+    }
+
+    /**
+     * Waits out the think time and returns the moment the next request is due.
+     */
+    private long pause() {
+        long due = System.nanoTime() + thinkTime.toNanos();
+        if (!thinkTime.isZero()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(thinkTime.toNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return due;
+    }
+}
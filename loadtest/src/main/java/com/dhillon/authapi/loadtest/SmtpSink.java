@@ -0,0 +1,154 @@
+package com.dhillon.authapi.loadtest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A minimal SMTP server that accepts every message, pulls the verification token out of its body
+ * and hands it to whichever session is waiting on that recipient. It advertises neither AUTH nor
+ * STARTTLS, so the application's mail client sends in plain text without logging in.
+ */
+final class SmtpSink implements Closeable {
+    private static final Pattern TOKEN = Pattern.compile("token=([0-9A-Za-z-]+)");
+    private static final Pattern ADDRESS = Pattern.compile("<([^>]*)>");
+
+    private final ServerSocket server;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<String, CompletableFuture<String>> tokens = new ConcurrentHashMap<>();
+    private final AtomicLong received = new AtomicLong();
+
+    SmtpSink(int port) throws IOException {
+        this.server = new ServerSocket(port);
+        Thread.ofPlatform().daemon().name("smtp-sink").start(this::accept);
+    }
+
+    /**
+     * Completes with the token from the next verification email sent to {@code email}, whether it
+     * arrived before or after this call.
+     */
+    CompletableFuture<String> verificationToken(String email) {
+        return tokens.computeIfAbsent(email.toLowerCase(Locale.ROOT), key -> new CompletableFuture<>());
+    }
+
+    void forget(String email) {
+        tokens.remove(email.toLowerCase(Locale.ROOT));
+    }
+
+    long received() {
+        return received.get();
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("SMTP sink accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 loadtest ESMTP");
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 loadtest");
+                    case "MAIL" -> {
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        Matcher address = ADDRESS.matcher(line);
+                        if (address.find()) {
+                            recipients.add(address.group(1).toLowerCase(Locale.ROOT));
+                        }
+                        reply(out, "250 OK");
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        deliver(recipients, readData(in));
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RSET" -> {
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; nothing to clean up beyond the socket
+        }
+    }
+
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            // Undo dot-stuffing and quoted-printable soft line breaks
+            if (line.startsWith("..")) {
+                line = line.substring(1);
+            }
+            if (line.endsWith("=")) {
+                data.append(line, 0, line.length() - 1);
+            } else {
+                data.append(line).append('\n');
+            }
+        }
+        return data.toString();
+    }
+
+    private void deliver(List<String> recipients, String data) {
+        received.incrementAndGet();
+        Matcher token = TOKEN.matcher(data.replace("=3D", "="));
+        if (!token.find()) {
+            return;
+        }
+        for (String recipient : recipients) {
+            verificationToken(recipient).complete(token.group(1));
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        connections.shutdownNow();
+    }
+}
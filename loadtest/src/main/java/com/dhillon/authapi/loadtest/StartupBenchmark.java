@@ -0,0 +1,184 @@
+package com.dhillon.authapi.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Launches the instance repeatedly and measures how long each launch takes until a login
+ * succeeds: JVM start, context refresh, the first connection to MongoDB and the first request, as a
+ * new pod on a scale-out would go through them. Comparing a plain jar with the fast-start build, or
+ * one build with the next, shows startup regressions that a warmed-up load test cannot.
+ */
+public final class StartupBenchmark {
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final long TIMED_OUT = -1;
+    private static final long REJECTED = -2;
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([0-9.]+) seconds \\(process running for ([0-9.]+)\\)");
+
+    private final StartupBenchmarkConfig config;
+    private final SmtpSink sink;
+    private final AuthClient client;
+    private final Path logs;
+
+    private StartupBenchmark(StartupBenchmarkConfig config, SmtpSink sink) throws IOException {
+        this.config = config;
+        this.sink = sink;
+        this.client = new AuthClient(URI.create("http://localhost:" + config.port()));
+        this.logs = config.logs() != null ? Files.createDirectories(config.logs()) : Files.createTempDirectory("startup-benchmark");
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmarkConfig config;
+        try {
+            config = StartupBenchmarkConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(StartupBenchmarkConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        boolean passed;
+        try (SmtpSink sink = new SmtpSink(config.smtpPort())) {
+            passed = new StartupBenchmark(config, sink).run();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run() throws IOException, InterruptedException {
+        System.out.printf("Launching: %s%nLogs: %s%n", String.join(" ", config.command()), logs);
+        provision();
+        List<Launch> launches = new ArrayList<>();
+        for (int i = 1; i <= config.runs(); i++) {
+            Launch launch = launch("run-" + i, false);
+            System.out.printf("run %d: %s%n", i, launch.describe());
+            launches.add(launch);
+        }
+        return report(launches);
+    }
+
+    /**
+     * A first, unmeasured launch that also warms the OS file cache, and registers and verifies the
+     * account if it cannot log in yet.
+     */
+    private void provision() throws IOException, InterruptedException {
+        Launch launch = launch("provision", true);
+        if (launch.firstLoginNanos() < 0) {
+            throw new IllegalStateException("The instance did not come up or the account could not log in; see " + launch.log());
+        }
+    }
+
+    private Launch launch(String name, boolean provision) throws IOException, InterruptedException {
+        Path log = logs.resolve(name + ".log");
+        List<String> command = new ArrayList<>(config.command());
+        command.add("--server.port=" + config.port());
+        command.add("--spring.mail.host=localhost");
+        command.add("--spring.mail.port=" + config.smtpPort());
+        command.add("--spring.mail.properties.mail.smtp.auth=false");
+        command.add("--spring.mail.properties.mail.smtp.starttls.enable=false");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            long deadline = start + config.timeout().toNanos();
+            long firstLogin = awaitLogin(process, deadline);
+            if (firstLogin == REJECTED && provision) {
+                register(deadline);
+                firstLogin = awaitLogin(process, deadline);
+            }
+            return new Launch(log, firstLogin < 0 ? -1 : firstLogin - start, startedLine(log));
+        } finally {
+            stop(process);
+        }
+    }
+
+    /**
+     * Tries to log in until it succeeds and returns when it did; or {@link #REJECTED} if the instance
+     * is up but turns the login down, or {@link #TIMED_OUT} once the deadline passes or the process exits.
+     */
+    private long awaitLogin(Process process, long deadline) throws InterruptedException {
+        while (System.nanoTime() < deadline && process.isAlive()) {
+            long attempt = System.nanoTime();
+            AuthClient.Response response = client.login(config.email(), config.password(), attempt);
+            if (response.ok()) {
+                return System.nanoTime();
+            }
+            if (response.text("error") != null) {
+                return REJECTED;
+            }
+            TimeUnit.NANOSECONDS.sleep(config.pollInterval().toNanos());
+        }
+        return TIMED_OUT;
+    }
+
+    private void register(long deadline) throws InterruptedException {
+        System.out.printf("Registering %s%n", config.email());
+        sink.forget(config.email());
+        if (!client.register(config.username(), config.email(), config.password(), System.nanoTime()).ok()) {
+            throw new IllegalStateException("Registering " + config.email() + " failed; is it taken with another password?");
+        }
+        String token;
+        try {
+            token = sink.verificationToken(config.email()).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("No verification email arrived on port " + config.smtpPort(), e);
+        }
+        if (!client.verify(token, System.nanoTime()).ok()) {
+            throw new IllegalStateException("Verifying " + config.email() + " failed");
+        }
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static String startedLine(Path log) throws IOException {
+        Matcher started = STARTED.matcher(Files.readString(log));
+        return started.find() ? started.group(1) + "s context, " + started.group(2) + "s process" : null;
+    }
+
+    private boolean report(List<Launch> launches) {
+        PrintStream out = System.out;
+        List<Long> times = launches.stream().filter(launch -> launch.firstLoginNanos() >= 0)
+                .map(Launch::firstLoginNanos).sorted(Comparator.naturalOrder()).toList();
+        if (times.size() < launches.size()) {
+            out.printf("%n%d of %d launches did not log in within %ds%n", launches.size() - times.size(), launches.size(),
+                    config.timeout().toSeconds());
+            return false;
+        }
+        long median = times.get(times.size() / 2);
+        out.printf("%nTime to first successful login over %d launches (ms)%n", times.size());
+        out.printf("%8s %8s %8s%n", "min", "median", "max");
+        out.printf("%8.0f %8.0f %8.0f%n", times.get(0) / NANOS_PER_MILLI, median / NANOS_PER_MILLI,
+                times.get(times.size() - 1) / NANOS_PER_MILLI);
+        if (config.maxMedian() != null && median > config.maxMedian().toNanos()) {
+            out.printf("Median is above --max-median=%dms%n", config.maxMedian().toMillis());
+            return false;
+        }
+        return true;
+    }
+
+    private record Launch(Path log, long firstLoginNanos, String started) {
+        String describe() {
+            if (firstLoginNanos < 0) {
+                return "no successful login, see " + log;
+            }
+            return String.format("first login after %.0f ms%s", firstLoginNanos / NANOS_PER_MILLI,
+                    started != null ? " (" + started + ")" : "");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.dhillon.authapi.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for a startup benchmark, parsed from {@code --name=value} arguments followed by
+ * {@code --} and the command that launches the instance.
+ */
+record StartupBenchmarkConfig(
+        List<String> command,
+        int runs,
+        int port,
+        int smtpPort,
+        String email,
+        String password,
+        Duration timeout,
+        Duration pollInterval,
+        Duration maxMedian,
+        Path logs
+) {
+    static final String USAGE = """
+            Usage: java -cp loadtest.jar com.dhillon.authapi.loadtest.StartupBenchmark [--name=value ...] -- COMMAND...
+              COMMAND                          launches the instance, e.g. java -jar app.jar; server and mail
+                                               arguments are appended to it
+              --runs=5                         measured launches, after one unmeasured launch that provisions the account
+              --port=8082                      port the instance listens on
+              --smtp-port=3025                 port of the fake SMTP sink the instance sends mail to
+              --email=startup@loadtest.local   account that logs in; registered and verified if it cannot
+              --password=LoadTest#Password1    its password
+              --timeout=120s                   how long a launch may take to its first successful login
+              --poll-interval=10ms             pause between login attempts while the instance starts
+              --max-median=DURATION            exit with status 1 if the median time to first login is above this
+              --logs=DIR                       keep each launch's output in DIR instead of a temporary directory
+            """;
+
+    static StartupBenchmarkConfig parse(String[] args) {
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 0 || separator == args.length - 1) {
+            throw new IllegalArgumentException("Expected -- followed by the command that launches the instance");
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String arg : Arrays.copyOfRange(args, 0, separator)) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        StartupBenchmarkConfig config = new StartupBenchmarkConfig(
+                List.of(Arrays.copyOfRange(args, separator + 1, args.length)),
+                Integer.parseInt(values.getOrDefault("runs", "5")),
+                Integer.parseInt(values.getOrDefault("port", "8082")),
+                Integer.parseInt(values.getOrDefault("smtp-port", "3025")),
+                values.getOrDefault("email", "startup@loadtest.local"),
+                values.getOrDefault("password", "LoadTest#Password1"),
+                LoadTestConfig.duration(values.getOrDefault("timeout", "120s")),
+                LoadTestConfig.duration(values.getOrDefault("poll-interval", "10ms")),
+                values.containsKey("max-median") ? LoadTestConfig.duration(values.get("max-median")) : null,
+                values.containsKey("logs") ? Path.of(values.get("logs")) : null);
+        if (config.runs() <= 0) {
+            throw new IllegalArgumentException("--runs must be positive");
+        }
+        return config;
+    }
+
+    String username() {
+        return email.substring(0, Math.max(1, email.indexOf('@'))).replaceAll("[^0-9A-Za-z]", "");
+    }
+}
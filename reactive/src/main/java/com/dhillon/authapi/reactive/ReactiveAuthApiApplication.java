@@ -0,0 +1,19 @@
+package com.dhillon.authapi.reactive;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.security.PasswordHashingPolicy;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EntityScan(basePackageClasses = User.class)
+@EnableScheduling
+@Import(PasswordHashingPolicy.class)
+public class ReactiveAuthApiApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveAuthApiApplication.class, args);
+    }
+}
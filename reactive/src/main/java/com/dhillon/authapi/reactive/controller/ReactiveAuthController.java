@@ -0,0 +1,126 @@
+package com.dhillon.authapi.reactive.controller;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.model.VerificationToken;
+import com.dhillon.authapi.reactive.repository.ReactiveUserRepository;
+import com.dhillon.authapi.reactive.repository.ReactiveVerificationTokenRepository;
+import com.dhillon.authapi.reactive.security.EmailPasswordAuthenticationManager;
+import com.dhillon.authapi.reactive.security.ReactivePasswordHasher;
+import com.dhillon.authapi.reactive.service.ReactiveEmailService;
+import com.dhillon.authapi.reactive.service.ReactiveRefreshTokenService;
+import com.dhillon.authapi.repository.DuplicateKeys;
+import com.dhillon.authapi.security.JwtUtil;
+import com.dhillon.authapi.security.PasswordHashingRejectedException;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Non-blocking implementation of {@code /register}, {@code /login}, {@code /refresh} and
+ * {@code /verify} that returns the same responses as the servlet {@code AuthController}.
+ */
+@RestController
+@RequestMapping("/api/auth")
+public class ReactiveAuthController {
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveVerificationTokenRepository tokenRepository;
+    private final ReactivePasswordHasher passwordHasher;
+    private final EmailPasswordAuthenticationManager authenticationManager;
+    private final ReactiveEmailService emailService;
+    private final ReactiveRefreshTokenService refreshTokenService;
+    private final JwtUtil jwtUtil;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveAuthController(ReactiveUserRepository userRepository, ReactiveVerificationTokenRepository tokenRepository,
+                                  ReactivePasswordHasher passwordHasher, EmailPasswordAuthenticationManager authenticationManager,
+                                  ReactiveEmailService emailService, ReactiveRefreshTokenService refreshTokenService,
+                                  JwtUtil jwtUtil, ReactiveMongoTemplate mongoTemplate) {
+        this.userRepository = userRepository;
+        this.tokenRepository = tokenRepository;
+        this.passwordHasher = passwordHasher;
+        this.authenticationManager = authenticationManager;
+        this.emailService = emailService;
+        this.refreshTokenService = refreshTokenService;
+        this.jwtUtil = jwtUtil;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<Map<String, String>>> register(@RequestBody User user) {
+        String token = UUID.randomUUID().toString();
+        return passwordHasher.encode(user.password())
+                .map(hash -> new User(new ObjectId().toHexString(), user.username(), user.email(), hash, false, User.DEFAULT_ROLES))
+                .flatMap(userRepository::insert)
+                .flatMap(savedUser -> tokenRepository.insert(new VerificationToken(
+                                null, token, savedUser.id(), new Date(System.currentTimeMillis() + 86400000)))
+                        .then(emailService.sendVerificationEmail(savedUser.email(), token)))
+                .thenReturn(message(HttpStatus.OK, "message", "Registration successful. Check your email for verification."))
+                .onErrorResume(DuplicateKeyException.class, ex -> Mono.just(message(HttpStatus.BAD_REQUEST, "error",
+                        DuplicateKeys.index(ex).filter("username"::equals).isPresent()
+                                ? "Username already taken" : "Email already registered")));
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<Map<String, String>>> login(@RequestBody Map<String, String> loginRequest) {
+        String email = loginRequest.get("email");
+        String password = loginRequest.get("password");
+        return authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(email, password))
+                .flatMap(authentication -> {
+                    UserCredentials user = (UserCredentials) authentication.getPrincipal();
+                    String jwt = jwtUtil.generateToken(user.id(), user.email(), user.roles());
+                    return refreshTokenService.issue(user.id())
+                            .map(refreshToken -> ResponseEntity.ok(Map.of("token", jwt, "refreshToken", refreshToken)));
+                })
+                .onErrorResume(ex -> ex instanceof UsernameNotFoundException || ex instanceof DisabledException,
+                        ex -> Mono.just(message(HttpStatus.BAD_REQUEST, "error", "Invalid credentials or email not verified")))
+                .onErrorResume(ex -> !(ex instanceof PasswordHashingRejectedException),
+                        ex -> Mono.just(message(HttpStatus.FORBIDDEN, "error", "Authentication failed: " + ex.getMessage())));
+    }
+
+    @PostMapping("/refresh")
+    public Mono<ResponseEntity<Map<String, String>>> refresh(@RequestBody Map<String, String> refreshRequest) {
+        return refreshTokenService.rotate(refreshRequest.get("refreshToken"))
+                .map(rotation -> ResponseEntity.ok(Map.of(
+                        "token", jwtUtil.generateToken(rotation.user().id(), rotation.user().email(), rotation.user().roles()),
+                        "refreshToken", rotation.refreshToken())))
+                .defaultIfEmpty(message(HttpStatus.UNAUTHORIZED, "error", "Invalid refresh token"));
+    }
+
+    @GetMapping("/verify")
+    public Mono<ResponseEntity<Map<String, String>>> verify(@RequestParam String token) {
+        return tokenRepository.deleteByTokenAndExpiryDateAfter(token, new Date())
+                .flatMap(verificationToken -> mongoTemplate.findAndModify(
+                                Query.query(Criteria.where("_id").is(verificationToken.userId())),
+                                new Update().set("enabled", true), User.class)
+                        .map(enabled -> message(HttpStatus.OK, "message", "Email verified. You can now log in."))
+                        .defaultIfEmpty(message(HttpStatus.BAD_REQUEST, "error", "User not found")))
+                .defaultIfEmpty(message(HttpStatus.BAD_REQUEST, "error", "Invalid verification token"));
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleHashingRejected(PasswordHashingRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", "Server busy, please retry later"));
+    }
+
+    private static ResponseEntity<Map<String, String>> message(HttpStatus status, String key, String value) {
+        return ResponseEntity.status(status).body(Map.of(key, value));
+    }
+}
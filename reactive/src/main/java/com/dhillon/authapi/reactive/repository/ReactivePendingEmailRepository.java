@@ -0,0 +1,7 @@
+package com.dhillon.authapi.reactive.repository;
+
+import com.dhillon.authapi.model.PendingEmail;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactivePendingEmailRepository extends ReactiveMongoRepository<PendingEmail, String> {
+}
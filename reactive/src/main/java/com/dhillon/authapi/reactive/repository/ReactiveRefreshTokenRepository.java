@@ -0,0 +1,11 @@
+package com.dhillon.authapi.reactive.repository;
+
+import com.dhillon.authapi.model.RefreshToken;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveRefreshTokenRepository extends ReactiveMongoRepository<RefreshToken, String> {
+    Mono<RefreshToken> findByTokenHash(String tokenHash);
+
+    Mono<Long> deleteByFamilyId(String familyId);
+}
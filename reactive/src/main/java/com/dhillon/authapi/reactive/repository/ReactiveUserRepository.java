@@ -0,0 +1,18 @@
+package com.dhillon.authapi.reactive.repository;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+    Mono<User> findByEmail(String email);
+    Mono<User> findByUsername(String username);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'email': 1, 'password': 1, 'enabled': 1, 'roles': 1 }")
+    Mono<UserCredentials> findCredentialsByEmail(String email);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'email': 1, 'enabled': 1, 'roles': 1 }")
+    Mono<UserCredentials> findCredentialsById(String id);
+}
@@ -0,0 +1,11 @@
+package com.dhillon.authapi.reactive.repository;
+
+import com.dhillon.authapi.model.VerificationToken;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+public interface ReactiveVerificationTokenRepository extends ReactiveMongoRepository<VerificationToken, String> {
+    Mono<VerificationToken> deleteByTokenAndExpiryDateAfter(String token, Date now);
+}
@@ -0,0 +1,55 @@
+package com.dhillon.authapi.reactive.security;
+
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.reactive.repository.ReactiveUserRepository;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive counterpart of the servlet application's email-keyed authentication provider.
+ */
+@Component
+public class EmailPasswordAuthenticationManager implements ReactiveAuthenticationManager {
+    private final ReactiveUserRepository userRepository;
+    private final ReactivePasswordHasher passwordHasher;
+
+    public EmailPasswordAuthenticationManager(ReactiveUserRepository userRepository, ReactivePasswordHasher passwordHasher) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        Object credentials = authentication.getCredentials();
+        return userRepository.findCredentialsByEmail(authentication.getName())
+                .switchIfEmpty(Mono.error(() -> new UsernameNotFoundException("User not found")))
+                .flatMap(user -> {
+                    if (!user.enabled()) {
+                        return Mono.error(new DisabledException("User is disabled"));
+                    }
+                    if (credentials == null || user.password() == null) {
+                        return Mono.error(new BadCredentialsException("Bad credentials"));
+                    }
+                    return passwordHasher.matches(credentials.toString(), user.password())
+                            .flatMap(matches -> matches ? Mono.just(toAuthentication(user))
+                                    : Mono.error(new BadCredentialsException("Bad credentials")));
+                });
+    }
+
+    private static Authentication toAuthentication(UserCredentials user) {
+        List<GrantedAuthority> authorities = user.roles() == null ? List.of()
+                : user.roles().stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+        UserCredentials principal = new UserCredentials(user.id(), user.email(), null, user.enabled(), user.roles());
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+    }
+}
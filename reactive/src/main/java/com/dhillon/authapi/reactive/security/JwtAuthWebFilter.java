@@ -0,0 +1,50 @@
+package com.dhillon.authapi.reactive.security;
+
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.security.VerifiedToken;
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * WebFilter equivalent of the servlet {@code JwtAuthFilter}. It is added to the security chain by
+ * {@link ReactiveSecurityConfig} rather than declared as a bean, so WebFlux does not run it twice.
+ */
+public class JwtAuthWebFilter implements WebFilter {
+    private final VerifiedTokenCache tokenCache;
+    private final ReactiveTokenRevocationList revocationList;
+
+    public JwtAuthWebFilter(VerifiedTokenCache tokenCache, ReactiveTokenRevocationList revocationList) {
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+        Optional<VerifiedToken> verified = tokenCache.verify(authHeader.substring(7));
+        if (verified.isEmpty() || revocationList.isRevoked(verified.get()) || verified.get().roles() == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(toAuthentication(verified.get())));
+    }
+
+    // Access tokens are only issued to enabled users, and deleting a user revokes them
+    private static Authentication toAuthentication(VerifiedToken token) {
+        UserCredentials principal = new UserCredentials(token.userId(), token.email(), null, true, token.roles());
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null,
+                token.roles().stream().map(SimpleGrantedAuthority::new).toList());
+    }
+}
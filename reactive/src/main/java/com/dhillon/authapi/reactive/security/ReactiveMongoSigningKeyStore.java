@@ -0,0 +1,32 @@
+package com.dhillon.authapi.reactive.security;
+
+import com.dhillon.authapi.model.SigningKey;
+import com.dhillon.authapi.security.SigningKeyStore;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Blocking {@link SigningKeyStore} over the reactive driver. Keys are only read at startup, by the
+ * scheduled refresh and by the background reload {@link com.dhillon.authapi.security.JwtKeyRing}
+ * starts for an unknown kid, never on an event-loop thread.
+ */
+@Component
+public class ReactiveMongoSigningKeyStore implements SigningKeyStore {
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveMongoSigningKeyStore(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<SigningKey> loadAll() {
+        return mongoTemplate.findAll(SigningKey.class).collectList().block();
+    }
+
+    @Override
+    public void save(SigningKey key) {
+        mongoTemplate.insert(key).block();
+    }
+}
@@ -0,0 +1,57 @@
+package com.dhillon.authapi.reactive.security;
+
+import com.dhillon.authapi.security.PasswordHashingPolicy;
+import com.dhillon.authapi.security.PasswordHashingRejectedException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the {@link PasswordHashingPolicy} encoder on a bounded scheduler so it never blocks the event
+ * loop. When the scheduler's queue is full the returned Mono fails with
+ * {@link PasswordHashingRejectedException}. Reactor bounds the queue of each thread, so
+ * {@code password-hashing.queue-capacity} is split between the threads to keep it a bound on the
+ * tasks waiting in the whole pool, as it is for the servlet app's executor.
+ */
+@Component
+public class ReactivePasswordHasher {
+    private final PasswordEncoder encoder;
+    private final Scheduler scheduler;
+    private final long retryAfterSeconds;
+
+    public ReactivePasswordHasher(PasswordHashingPolicy hashingPolicy,
+                                  @Value("${password-hashing.threads}") int threads,
+                                  @Value("${password-hashing.queue-capacity}") int queueCapacity,
+                                  @Value("${password-hashing.retry-after-seconds}") long retryAfterSeconds) {
+        this.encoder = hashingPolicy.createEncoder();
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newBoundedElastic(poolSize, Math.max(1, queueCapacity / poolSize), "password-hash");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return run(() -> encoder.encode(rawPassword));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> Mono<T> run(Callable<T> task) {
+        return Mono.fromCallable(task)
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, ex -> new PasswordHashingRejectedException(retryAfterSeconds));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,50 @@
+package com.dhillon.authapi.reactive.security;
+
+import com.dhillon.authapi.security.JwtKeyRing;
+import com.dhillon.authapi.security.JwtUtil;
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+@Configuration
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public JwtKeyRing jwtKeyRing(ReactiveMongoSigningKeyStore signingKeyStore,
+                                 @Value("${jwt.secret}") String jwtSecret,
+                                 @Value("${jwt.keys.rotation-interval}") long rotationIntervalMs,
+                                 @Value("${jwt.keys.publish-ahead}") long publishAheadMs,
+                                 @Value("${jwt.expiration}") long jwtExpirationMs) {
+        return new JwtKeyRing(signingKeyStore, jwtSecret, rotationIntervalMs, publishAheadMs, jwtExpirationMs);
+    }
+
+    @Bean
+    public JwtUtil jwtUtil(JwtKeyRing jwtKeyRing, @Value("${jwt.expiration}") long jwtExpirationMs) {
+        return new JwtUtil(jwtKeyRing, jwtExpirationMs);
+    }
+
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache(JwtUtil jwtUtil, @Value("${jwt.cache.max-entries}") long maxEntries) {
+        return new VerifiedTokenCache(jwtUtil, maxEntries);
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, VerifiedTokenCache verifiedTokenCache,
+                                                         ReactiveTokenRevocationList revocationList) {
+        return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/api/auth/**").permitAll()
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(new JwtAuthWebFilter(verifiedTokenCache, revocationList), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
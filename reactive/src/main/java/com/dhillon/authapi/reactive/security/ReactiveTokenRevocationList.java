@@ -0,0 +1,44 @@
+package com.dhillon.authapi.reactive.security;
+
+import com.dhillon.authapi.model.RevokedToken;
+import com.dhillon.authapi.security.RevocationMirror;
+import com.dhillon.authapi.security.VerifiedToken;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Read-only counterpart of the servlet {@code TokenRevocationList}: mirrors the revoked_tokens
+ * collection in memory, so {@link JwtAuthWebFilter} can check a token without a database call on
+ * the event loop. Revocations are made by the servlet application and picked up here on each sync.
+ */
+@Component
+public class ReactiveTokenRevocationList {
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final RevocationMirror mirror = new RevocationMirror();
+
+    public ReactiveTokenRevocationList(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return mirror.isRevoked(token);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval}")
+    public Mono<Void> sync() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("revokedAt").gte(mirror.syncFrom()).and("expiresAt").gt(Date.from(now)))
+                .with(Sort.by("revokedAt"));
+        return mongoTemplate.find(query, RevokedToken.class)
+                .doOnNext(mirror::synced)
+                .then(Mono.fromRunnable(() -> mirror.expire(now)));
+    }
+}
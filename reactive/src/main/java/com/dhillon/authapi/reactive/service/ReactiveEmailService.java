@@ -0,0 +1,31 @@
+package com.dhillon.authapi.reactive.service;
+
+import com.dhillon.authapi.model.PendingEmail;
+import com.dhillon.authapi.reactive.repository.ReactivePendingEmailRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ * Queues verification emails in the shared outbox collection. Delivery is left to the servlet
+ * application's outbox dispatcher, which reads the same collection.
+ */
+@Service
+public class ReactiveEmailService {
+    private final ReactivePendingEmailRepository outbox;
+
+    public ReactiveEmailService(ReactivePendingEmailRepository outbox) {
+        this.outbox = outbox;
+    }
+
+    public Mono<Void> sendVerificationEmail(String to, String token) {
+        String subject = "Verify your email";
+        String verificationUrl = "http://localhost:8082/api/auth/verify?token=" + token;
+        String text = "Click the link to verify your email: " + verificationUrl;
+
+        Date now = new Date();
+        return outbox.insert(new PendingEmail(null, to, subject, text, PendingEmail.Status.PENDING, 0, now, null, null, now))
+                .then();
+    }
+}
@@ -0,0 +1,107 @@
+package com.dhillon.authapi.reactive.service;
+
+import com.dhillon.authapi.model.RefreshToken;
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.reactive.repository.ReactiveRefreshTokenRepository;
+import com.dhillon.authapi.reactive.repository.ReactiveUserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Non-blocking counterpart of the servlet {@code RefreshTokenService}. Tokens are stored the same
+ * way in the same collection, so a token issued by either application can be rotated by the other.
+ */
+@Service
+public class ReactiveRefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final ReactiveRefreshTokenRepository repository;
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final long expirationMs;
+
+    public ReactiveRefreshTokenService(ReactiveRefreshTokenRepository repository, ReactiveUserRepository userRepository,
+                                       ReactiveMongoTemplate mongoTemplate,
+                                       @Value("${refresh-token.expiration}") long expirationMs) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.expirationMs = expirationMs;
+    }
+
+    /**
+     * Starts a new token family for a fresh login.
+     */
+    public Mono<String> issue(String userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges {@code refreshToken} for its successor. Empty if the token is unknown, expired or
+     * already used, or if the user no longer exists or is disabled. Reuse of a spent token revokes
+     * its whole family.
+     */
+    public Mono<Rotation> rotate(String refreshToken) {
+        if (refreshToken == null) {
+            return Mono.empty();
+        }
+        String tokenHash = hash(refreshToken);
+        Query unused = Query.query(Criteria.where("tokenHash").is(tokenHash)
+                .and("used").is(false)
+                .and("expiresAt").gt(new Date()));
+        return mongoTemplate.findAndModify(unused, new Update().set("used", true), RefreshToken.class)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(current -> current.map(this::exchange).orElseGet(() -> revokeIfReused(tokenHash)));
+    }
+
+    private Mono<Rotation> exchange(RefreshToken current) {
+        return userRepository.findCredentialsById(current.userId())
+                .filter(UserCredentials::enabled)
+                .flatMap(user -> issue(current.userId(), current.familyId()).map(token -> new Rotation(user, token)))
+                .switchIfEmpty(Mono.defer(() -> repository.deleteByFamilyId(current.familyId()).then(Mono.empty())));
+    }
+
+    private Mono<Rotation> revokeIfReused(String tokenHash) {
+        return repository.findByTokenHash(tokenHash)
+                .filter(RefreshToken::used)
+                .flatMap(reused -> repository.deleteByFamilyId(reused.familyId()))
+                .then(Mono.empty());
+    }
+
+    private Mono<String> issue(String userId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = BASE64_URL.encodeToString(bytes);
+        Date now = new Date();
+        return repository.insert(new RefreshToken(null, hash(token), familyId, userId, false, now,
+                        new Date(now.getTime() + expirationMs)))
+                .thenReturn(token);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return BASE64_URL.encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(UserCredentials user, String refreshToken) {}
+}
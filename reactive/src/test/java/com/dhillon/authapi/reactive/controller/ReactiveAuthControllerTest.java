@@ -0,0 +1,167 @@
+package com.dhillon.authapi.reactive.controller;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.model.VerificationToken;
+import com.dhillon.authapi.reactive.repository.ReactiveUserRepository;
+import com.dhillon.authapi.reactive.repository.ReactiveVerificationTokenRepository;
+import com.dhillon.authapi.reactive.security.EmailPasswordAuthenticationManager;
+import com.dhillon.authapi.reactive.security.ReactiveMongoSigningKeyStore;
+import com.dhillon.authapi.reactive.security.ReactivePasswordHasher;
+import com.dhillon.authapi.reactive.security.ReactiveSecurityConfig;
+import com.dhillon.authapi.reactive.security.ReactiveTokenRevocationList;
+import com.dhillon.authapi.reactive.service.ReactiveEmailService;
+import com.dhillon.authapi.reactive.service.ReactiveRefreshTokenService;
+import com.dhillon.authapi.security.JwtUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+@WebFluxTest(controllers = {ReactiveAuthController.class, ReactiveAuthControllerTest.Me.class})
+@Import({ReactiveSecurityConfig.class, ReactivePasswordHasher.class, EmailPasswordAuthenticationManager.class,
+        ReactiveAuthControllerTest.Me.class})
+@TestPropertySource(properties = "password-hashing.bcrypt.strength=4")
+public class ReactiveAuthControllerTest {
+    private static final UserCredentials USER = new UserCredentials("userid", "test@email.com",
+            new BCryptPasswordEncoder(4).encode("password"), true, Set.of("ROLE_USER"));
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private ReactiveUserRepository userRepository;
+    @MockBean
+    private ReactiveVerificationTokenRepository tokenRepository;
+    @MockBean
+    private ReactiveEmailService emailService;
+    @MockBean
+    private ReactiveRefreshTokenService refreshTokenService;
+    @MockBean
+    private ReactiveMongoTemplate mongoTemplate;
+    @MockBean
+    private ReactiveMongoSigningKeyStore signingKeyStore;
+    @MockBean
+    private ReactiveTokenRevocationList revocationList;
+
+    @RestController
+    static class Me {
+        @GetMapping("/api/me")
+        Mono<String> me(@AuthenticationPrincipal UserCredentials user) {
+            return Mono.just(user.id());
+        }
+    }
+
+    @Test
+    void testRegisteredUserCanLogInAndCallAuthenticatedEndpoint() {
+        AtomicReference<User> registered = new AtomicReference<>();
+        Mockito.when(userRepository.insert(Mockito.any(User.class))).thenAnswer(invocation -> {
+            registered.set(invocation.getArgument(0));
+            return Mono.just(registered.get());
+        });
+        Mockito.when(tokenRepository.insert(Mockito.any(VerificationToken.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        Mockito.when(emailService.sendVerificationEmail(Mockito.eq("test@email.com"), Mockito.anyString())).thenReturn(Mono.empty());
+
+        webTestClient.post().uri("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("username", "test", "email", "test@email.com", "password", "password"))
+                .exchange()
+                .expectStatus().isOk();
+
+        // As after /verify: the stored user is enabled with the hash written at registration
+        User user = registered.get();
+        Mockito.when(userRepository.findCredentialsByEmail("test@email.com"))
+                .thenReturn(Mono.just(new UserCredentials(user.id(), user.email(), user.password(), true, user.roles())));
+        Mockito.when(refreshTokenService.issue(user.id())).thenReturn(Mono.just("refreshToken"));
+
+        String token = login("password").expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<Map<String, String>>() { })
+                .returnResult().getResponseBody().get("token");
+
+        webTestClient.get().uri("/api/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo(user.id());
+        webTestClient.get().uri("/api/me")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testLoginIssuesAccessAndRefreshToken() {
+        Mockito.when(userRepository.findCredentialsByEmail("test@email.com")).thenReturn(Mono.just(USER));
+        Mockito.when(refreshTokenService.issue("userid")).thenReturn(Mono.just("refreshToken"));
+
+        Map<String, String> body = login("password").expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<Map<String, String>>() { })
+                .returnResult().getResponseBody();
+
+        Assertions.assertEquals("userid", jwtUtil.verify(body.get("token")).orElseThrow().userId());
+        Assertions.assertEquals("refreshToken", body.get("refreshToken"));
+    }
+
+    @Test
+    void testLoginRejectsWrongPassword() {
+        Mockito.when(userRepository.findCredentialsByEmail("test@email.com")).thenReturn(Mono.just(USER));
+
+        login("wrong").expectStatus().isForbidden();
+        Mockito.verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void testRefreshRotatesToken() {
+        Mockito.when(refreshTokenService.rotate("refreshToken"))
+                .thenReturn(Mono.just(new ReactiveRefreshTokenService.Rotation(USER, "nextRefreshToken")));
+
+        webTestClient.post().uri("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("refreshToken", "refreshToken"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.token").value(token -> Assertions.assertTrue(jwtUtil.verify((String) token).isPresent()))
+                .jsonPath("$.refreshToken").isEqualTo("nextRefreshToken");
+    }
+
+    @Test
+    void testRefreshRejectsInvalidToken() {
+        Mockito.when(refreshTokenService.rotate("usedRefreshToken")).thenReturn(Mono.empty());
+
+        webTestClient.post().uri("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("refreshToken", "usedRefreshToken"))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Invalid refresh token");
+    }
+
+    private WebTestClient.ResponseSpec login(String password) {
+        return webTestClient.post().uri("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("email", "test@email.com", "password", password))
+                .exchange();
+    }
+}
@@ -0,0 +1,62 @@
+package com.dhillon.authapi.reactive.security;
+
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.reactive.repository.ReactiveUserRepository;
+import com.dhillon.authapi.security.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+@WebFluxTest(controllers = JwtAuthWebFilterTest.Me.class)
+@Import({ReactiveSecurityConfig.class, JwtAuthWebFilterTest.Me.class})
+public class JwtAuthWebFilterTest {
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private ReactiveMongoSigningKeyStore signingKeyStore;
+    @MockBean
+    private ReactiveUserRepository userRepository;
+    @MockBean
+    private ReactiveTokenRevocationList revocationList;
+
+    @RestController
+    static class Me {
+        @GetMapping("/api/me")
+        Mono<String> me(@AuthenticationPrincipal UserCredentials user) {
+            return Mono.just(user.id());
+        }
+    }
+
+    @Test
+    void testValidTokenAuthenticates() {
+        webTestClient.get().uri("/api/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("userid", "test@email.com", Set.of("ROLE_USER")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("userid");
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() {
+        Mockito.when(revocationList.isRevoked(Mockito.any())).thenReturn(true);
+
+        webTestClient.get().uri("/api/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken("userid", "test@email.com", Set.of("ROLE_USER")))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
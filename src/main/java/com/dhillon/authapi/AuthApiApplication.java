@@ -2,8 +2,12 @@ package com.dhillon.authapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(AuthApiRuntimeHints.class)
 public class AuthApiApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthApiApplication.class, args);
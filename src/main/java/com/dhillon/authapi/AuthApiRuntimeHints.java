@@ -0,0 +1,40 @@
+package com.dhillon.authapi;
+
+import com.dhillon.authapi.model.JobCheckpoint;
+import com.dhillon.authapi.model.PendingEmail;
+import com.dhillon.authapi.model.RefreshToken;
+import com.dhillon.authapi.model.RevokedToken;
+import com.dhillon.authapi.model.SigningKey;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.model.UserTransferRecord;
+import com.dhillon.authapi.model.VerificationToken;
+import com.dhillon.authapi.service.UserTransferService;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection hints for the records that Mongo and Jackson bind through their canonical
+ * constructors and accessors. AOT processing finds the {@code @Document} types on its own, but
+ * not the projections and the bulk-transfer records, which only appear in generic signatures.
+ */
+class AuthApiRuntimeHints implements RuntimeHintsRegistrar {
+    private static final Class<?>[] BOUND_TYPES = {
+            JobCheckpoint.class,
+            PendingEmail.class,
+            RefreshToken.class,
+            RevokedToken.class,
+            SigningKey.class,
+            User.class,
+            UserCredentials.class,
+            UserTransferRecord.class,
+            UserTransferService.Summary.class,
+            VerificationToken.class,
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), BOUND_TYPES);
+    }
+}
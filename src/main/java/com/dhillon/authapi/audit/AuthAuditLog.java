@@ -0,0 +1,260 @@
+package com.dhillon.authapi.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured stream of auth events, written as one JSON line per event to the {@code auth.audit}
+ * logger. Request threads only copy the event into an {@link AuthEventRing}; formatting and log I/O
+ * happen on a single background thread, and an event that finds the buffer full is dropped and
+ * counted rather than waited for. Each event type can be sampled, and every failure outcome (any
+ * outcome other than {@code success}) is capped at {@code audit.failures.max-lines} lines per
+ * window, with the rest summarised by email and client IP when the window closes.
+ */
+@Component
+public class AuthAuditLog {
+    public static final String SUCCESS = "success";
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthAuditLog.class);
+    private static final Logger audit = LoggerFactory.getLogger("auth.audit");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    // Distinct emails and IPs counted per summary; later ones only add to the total
+    private static final int TRACKED_SOURCES = 1000;
+    private static final int SUMMARY_TOP = 5;
+
+    private final AuthEventRing ring;
+    private final double[] sampleRates = new double[AuthEventType.values().length];
+    private final Counter[] dropped = new Counter[AuthEventType.values().length];
+    private final int maxFailureLines;
+    private final long failureWindowMs;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // Only touched by the writer thread
+    private final Map<AuthEventType, Map<String, FailureWindow>> failures = new EnumMap<>(AuthEventType.class);
+    private final StringBuilder line = new StringBuilder(256);
+    private long windowStart = System.currentTimeMillis();
+
+    public AuthAuditLog(MeterRegistry meterRegistry,
+                        @Value("${audit.buffer-size}") int bufferSize,
+                        @Value("${audit.sample-rates}") String sampleRates,
+                        @Value("${audit.failures.max-lines}") int maxFailureLines,
+                        @Value("${audit.failures.window}") long failureWindowMs) {
+        this.ring = new AuthEventRing(bufferSize);
+        this.maxFailureLines = maxFailureLines;
+        this.failureWindowMs = failureWindowMs;
+        parseSampleRates(sampleRates);
+        for (AuthEventType type : AuthEventType.values()) {
+            dropped[type.ordinal()] = Counter.builder("auth.audit.dropped")
+                    .description("Audit events lost because the buffer was full")
+                    .tag("event", type.value())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("auth.audit.buffer", ring, AuthEventRing::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        // A platform thread: it spends its time in log appenders, which may block
+        this.writer = new Thread(this::writeLoop, "auth-audit");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues an event without blocking. Any of {@code userId}, {@code email} and {@code clientIp}
+     * may be null.
+     */
+    public void record(AuthEventType type, String outcome, String userId, String email, String clientIp) {
+        double rate = sampleRates[type.ordinal()];
+        if (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        if (!ring.offer(type, outcome, userId, email, clientIp, System.currentTimeMillis())) {
+            dropped[type.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Stops the writer after it has written everything queued so far, and the pending summaries.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void parseSampleRates(String value) {
+        Arrays.fill(sampleRates, 1.0);
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int eq = entry.indexOf('=');
+            AuthEventType type = eq < 0 ? null : typeOf(entry.substring(0, eq).trim());
+            if (type == null) {
+                throw new IllegalArgumentException("Expected <event>=<rate> in audit.sample-rates but got '" + entry + "'");
+            }
+            double rate = Double.parseDouble(entry.substring(eq + 1).trim());
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Sample rate for " + type.value() + " must be between 0 and 1");
+            }
+            sampleRates[type.ordinal()] = rate;
+        }
+    }
+
+    private static AuthEventType typeOf(String value) {
+        for (AuthEventType type : AuthEventType.values()) {
+            if (type.value().equals(value)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private void writeLoop() {
+        boolean stopping = false;
+        while (!stopping) {
+            stopping = !running;
+            int written = 0;
+            try {
+                written = ring.drain(this::write);
+                long now = System.currentTimeMillis();
+                if (stopping || now - windowStart >= failureWindowMs) {
+                    summarise(now);
+                    windowStart = now;
+                }
+            } catch (RuntimeException e) {
+                // A failing appender must not stop the writer, or the buffer would only fill up
+                logger.warn("Unable to write auth audit events", e);
+            }
+            if (written == 0 && !stopping) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(AuthEventRing.Slot event) {
+        if (!SUCCESS.equals(event.outcome)) {
+            FailureWindow window = failures.computeIfAbsent(event.type, type -> new HashMap<>())
+                    .computeIfAbsent(event.outcome, outcome -> new FailureWindow());
+            if (window.written >= maxFailureLines) {
+                window.suppress(event.email, event.clientIp);
+                return;
+            }
+            window.written++;
+        }
+        if (!audit.isInfoEnabled()) {
+            return;
+        }
+        line.setLength(0);
+        start(event.timestamp, event.type, event.outcome);
+        field("userId", event.userId);
+        field("email", event.email);
+        field("ip", event.clientIp);
+        audit.info(line.append('}').toString());
+    }
+
+    private void summarise(long now) {
+        for (Map.Entry<AuthEventType, Map<String, FailureWindow>> byType : failures.entrySet()) {
+            for (Map.Entry<String, FailureWindow> byOutcome : byType.getValue().entrySet()) {
+                FailureWindow window = byOutcome.getValue();
+                if (window.suppressed > 0 && audit.isInfoEnabled()) {
+                    line.setLength(0);
+                    start(now, byType.getKey(), byOutcome.getKey());
+                    line.append(",\"suppressed\":").append(window.suppressed)
+                            .append(",\"windowMs\":").append(now - windowStart);
+                    top("topEmails", window.emails);
+                    top("topIps", window.clientIps);
+                    audit.info(line.append('}').toString());
+                }
+            }
+        }
+        failures.clear();
+    }
+
+    private void start(long timestamp, AuthEventType type, String outcome) {
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(timestamp)).append('"');
+        field("event", type.value());
+        field("outcome", outcome);
+    }
+
+    private void field(String name, String value) {
+        if (value == null) {
+            return;
+        }
+        line.append(",\"").append(name).append("\":");
+        string(value);
+    }
+
+    private void top(String name, Map<String, long[]> counts) {
+        line.append(",\"").append(name).append("\":{");
+        int[] appended = {0};
+        counts.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .limit(SUMMARY_TOP)
+                .forEach(entry -> {
+                    if (appended[0]++ > 0) {
+                        line.append(',');
+                    }
+                    string(entry.getKey());
+                    line.append(':').append(entry.getValue()[0]);
+                });
+        line.append('}');
+    }
+
+    // Emails and IPs come from clients, so everything is escaped to keep one event per line
+    private void string(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private static final class FailureWindow {
+        private int written;
+        private long suppressed;
+        private final Map<String, long[]> emails = new HashMap<>();
+        private final Map<String, long[]> clientIps = new HashMap<>();
+
+        private void suppress(String email, String clientIp) {
+            suppressed++;
+            count(emails, email);
+            count(clientIps, clientIp);
+        }
+
+        private static void count(Map<String, long[]> counts, String key) {
+            if (key == null) {
+                return;
+            }
+            long[] count = counts.get(key);
+            if (count != null) {
+                count[0]++;
+            } else if (counts.size() < TRACKED_SOURCES) {
+                counts.put(key, new long[] {1});
+            }
+        }
+    }
+}
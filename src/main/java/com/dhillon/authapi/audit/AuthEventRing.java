@@ -0,0 +1,117 @@
+package com.dhillon.authapi.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer queue of auth events, after Dmitry Vyukov's bounded
+ * queue. Events are copied into preallocated slots, so recording one allocates nothing, and a
+ * producer claims its slot with a single compare-and-set: it never waits for the consumer, and when
+ * the consumer is a full lap behind {@link #offer} fails instead.
+ */
+final class AuthEventRing {
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only advanced by the consumer; volatile so size() can be read from elsewhere
+    private volatile long head;
+
+    AuthEventRing(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("The audit buffer needs room for at least 2 events");
+        }
+        int size = 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+        this.slots = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * Adds an event unless the buffer is full. Safe to call from any number of threads.
+     */
+    boolean offer(AuthEventType type, String outcome, String userId, String email, String clientIp, long timestamp) {
+        long position = tail.get();
+        Slot slot;
+        while (true) {
+            slot = slots[(int) position & mask];
+            long lap = slot.sequence - position;
+            if (lap == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (lap < 0) {
+                return false;
+            } else {
+                // Another producer took this slot first
+                position = tail.get();
+            }
+        }
+        slot.type = type;
+        slot.outcome = outcome;
+        slot.userId = userId;
+        slot.email = email;
+        slot.clientIp = clientIp;
+        slot.timestamp = timestamp;
+        slot.sequence = position + 1;
+        return true;
+    }
+
+    /**
+     * Passes each published event to {@code consumer} in order, then frees its slot. Only one thread
+     * may drain; {@code consumer} must not hold on to the slot.
+     *
+     * @return the number of events drained
+     */
+    int drain(Consumer<Slot> consumer) {
+        int drained = 0;
+        long position = head;
+        while (true) {
+            Slot slot = slots[(int) position & mask];
+            if (slot.sequence != position + 1) {
+                return drained;
+            }
+            try {
+                consumer.accept(slot);
+            } finally {
+                slot.clear();
+                slot.sequence = position + slots.length;
+                head = ++position;
+            }
+            drained++;
+        }
+    }
+
+    static final class Slot {
+        // position + 1 once the event for position is published, position + capacity once it is consumed
+        private volatile long sequence;
+        AuthEventType type;
+        String outcome;
+        String userId;
+        String email;
+        String clientIp;
+        long timestamp;
+
+        private Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        private void clear() {
+            type = null;
+            outcome = null;
+            userId = null;
+            email = null;
+            clientIp = null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.dhillon.authapi.audit;
+
+import java.util.Locale;
+
+public enum AuthEventType {
+    LOGIN_SUCCESS, LOGIN_FAILURE, REGISTER, VERIFY, TOKEN_REJECTED;
+
+    private final String value = name().toLowerCase(Locale.ROOT).replace('_', '-');
+
+    /**
+     * The name used in audit lines and in {@code audit.sample-rates}, e.g. {@code login-failure}.
+     */
+    public String value() {
+        return value;
+    }
+}
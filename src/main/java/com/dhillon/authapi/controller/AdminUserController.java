@@ -0,0 +1,41 @@
+package com.dhillon.authapi.controller;
+
+import com.dhillon.authapi.service.UserTransferService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Bulk user import and export for migrations, restricted to {@code ROLE_ADMIN}. Both directions
+ * stream newline-delimited JSON, so neither side has to hold the whole user set in memory.
+ */
+@RestController
+@RequestMapping("/api/admin/users")
+public class AdminUserController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserTransferService transferService;
+
+    public AdminUserController(UserTransferService transferService) {
+        this.transferService = transferService;
+    }
+
+    @PostMapping(value = "/import", consumes = {NDJSON, MediaType.APPLICATION_JSON_VALUE})
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        transferService.importUsers(request.getInputStream(), response.getOutputStream());
+    }
+
+    @GetMapping("/export")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setHeader("Content-Disposition", "attachment; filename=\"users.ndjson\"");
+        transferService.exportUsers(response.getOutputStream());
+    }
+}
@@ -1,19 +1,28 @@
 package com.dhillon.authapi.controller;
 
+import com.dhillon.authapi.audit.AuthAuditLog;
+import com.dhillon.authapi.audit.AuthEventType;
+import com.dhillon.authapi.metrics.AuthMetrics;
 import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
 import com.dhillon.authapi.model.VerificationToken;
-import com.dhillon.authapi.repository.UserRepository;
 import com.dhillon.authapi.security.JwtUtil;
+import com.dhillon.authapi.security.PasswordHashingRejectedException;
+import com.dhillon.authapi.security.TokenRevocationList;
+import com.dhillon.authapi.security.VerifiedToken;
+import com.dhillon.authapi.service.DuplicateUserException;
 import com.dhillon.authapi.service.EmailService;
+import com.dhillon.authapi.service.RefreshTokenService;
 import com.dhillon.authapi.service.UserService;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -23,70 +32,125 @@ import java.util.UUID;
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
-    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     private final UserService userService;
     private final EmailService emailService;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
-    private final UserRepository userRepository;
+    private final AuthMetrics metrics;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
+    private final AuthAuditLog auditLog;
 
-    public AuthController(UserService userService, EmailService emailService, JwtUtil jwtUtil, AuthenticationManager authenticationManager, UserRepository userRepository) {
+    public AuthController(UserService userService, EmailService emailService, JwtUtil jwtUtil, AuthenticationManager authenticationManager,
+                          AuthMetrics metrics, RefreshTokenService refreshTokenService, TokenRevocationList revocationList,
+                          AuthAuditLog auditLog) {
         this.userService = userService;
         this.emailService = emailService;
         this.jwtUtil = jwtUtil;
         this.authenticationManager = authenticationManager;
-        this.userRepository = userRepository;
+        this.metrics = metrics;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
+        this.auditLog = auditLog;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User user) {
-        if (userService.findByEmail(user.email()).isPresent()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Email already registered"));
-        }
-        if (userService.findByUsername(user.username()).isPresent()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Username already taken"));
+    public ResponseEntity<?> register(@RequestBody User user, HttpServletRequest request) {
+        User savedUser;
+        try {
+            savedUser = userService.registerUser(user);
+        } catch (DuplicateUserException ex) {
+            metrics.outcome("register", "duplicate");
+            auditLog.record(AuthEventType.REGISTER, "duplicate", null, user.email(), request.getRemoteAddr());
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
         }
-        User savedUser = userService.registerUser(user);
         String token = UUID.randomUUID().toString();
         userService.createVerificationToken(savedUser, token);
+        Timer.Sample sample = metrics.start();
         emailService.sendVerificationEmail(savedUser.email(), token);
+        metrics.stop(sample, "register", "email-enqueue");
+        metrics.outcome("register", "success");
+        auditLog.record(AuthEventType.REGISTER, AuthAuditLog.SUCCESS, savedUser.id(), savedUser.email(), request.getRemoteAddr());
         return ResponseEntity.ok(Map.of("message", "Registration successful. Check your email for verification."));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest, HttpServletRequest request) {
         String email = loginRequest.get("email");
         String password = loginRequest.get("password");
-        Optional<User> userOpt = userService.findByEmail(email);
-        if (userOpt.isEmpty() || !userOpt.get().enabled()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Invalid credentials or email not verified"));
-        }
         try {
-            logger.info("Attempting authentication for username: {}", userOpt.get().username());
             Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(userOpt.get().username(), password)
+                    new UsernamePasswordAuthenticationToken(email, password)
             );
-            logger.info("Authentication successful for username: {}", userOpt.get().username());
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            String jwt = jwtUtil.generateToken(userOpt.get().id(), userOpt.get().email());
-            return ResponseEntity.ok(Map.of("token", jwt));
+            UserCredentials user = (UserCredentials) authentication.getPrincipal();
+            Timer.Sample sample = metrics.start();
+            String jwt = jwtUtil.generateToken(user.id(), user.email(), user.roles());
+            metrics.stop(sample, "login", "sign");
+            String refreshToken = refreshTokenService.issue(user.id());
+            metrics.outcome("login", "success");
+            auditLog.record(AuthEventType.LOGIN_SUCCESS, AuthAuditLog.SUCCESS, user.id(), user.email(), request.getRemoteAddr());
+            return ResponseEntity.ok(Map.of("token", jwt, "refreshToken", refreshToken));
+        } catch (UsernameNotFoundException | DisabledException ex) {
+            metrics.outcome("login", "invalid");
+            auditLog.record(AuthEventType.LOGIN_FAILURE, "invalid", null, email, request.getRemoteAddr());
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid credentials or email not verified"));
+        } catch (PasswordHashingRejectedException ex) {
+            metrics.outcome("login", "rejected");
+            auditLog.record(AuthEventType.LOGIN_FAILURE, "rejected", null, email, request.getRemoteAddr());
+            throw ex;
         } catch (Exception ex) {
-            logger.error("Authentication failed for username: {}. Reason: {}", userOpt.get().username(), ex.getMessage());
+            metrics.outcome("login", "failed");
+            auditLog.record(AuthEventType.LOGIN_FAILURE, "failed", null, email, request.getRemoteAddr());
             return ResponseEntity.status(403).body(Map.of("error", "Authentication failed: " + ex.getMessage()));
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody Map<String, String> refreshRequest) {
+        Optional<RefreshTokenService.Rotation> rotation = refreshTokenService.rotate(refreshRequest.get("refreshToken"));
+        if (rotation.isEmpty()) {
+            metrics.outcome("refresh", "invalid");
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid refresh token"));
+        }
+        UserCredentials user = rotation.get().user();
+        Timer.Sample sample = metrics.start();
+        String jwt = jwtUtil.generateToken(user.id(), user.email(), user.roles());
+        metrics.stop(sample, "refresh", "sign");
+        metrics.outcome("refresh", "success");
+        return ResponseEntity.ok(Map.of("token", jwt, "refreshToken", rotation.get().refreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                    @RequestBody(required = false) Map<String, String> logoutRequest) {
+        Optional<VerifiedToken> verified = authHeader != null && authHeader.startsWith("Bearer ")
+                ? jwtUtil.verify(authHeader.substring(7)) : Optional.empty();
+        if (verified.isEmpty()) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or expired token"));
+        }
+        revocationList.revoke(verified.get());
+        if (logoutRequest != null) {
+            refreshTokenService.revoke(logoutRequest.get("refreshToken"), verified.get().userId());
+        }
+        metrics.outcome("logout", "success");
+        return ResponseEntity.ok(Map.of("message", "Logged out."));
+    }
+
     @GetMapping("/verify")
-    public ResponseEntity<?> verify(@RequestParam String token) {
-        Optional<VerificationToken> verificationToken = userService.getVerificationToken(token);
+    public ResponseEntity<?> verify(@RequestParam String token, HttpServletRequest request) {
+        Optional<VerificationToken> verificationToken = userService.consumeVerificationToken(token);
         if (verificationToken.isEmpty()) {
+            metrics.outcome("verify", "invalid-token");
+            auditLog.record(AuthEventType.VERIFY, "invalid-token", null, null, request.getRemoteAddr());
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid verification token"));
         }
-        Optional<User> userOpt = userRepository.findById(verificationToken.get().userId());
-        if (userOpt.isEmpty()) {
+        if (!userService.enableUser(verificationToken.get().userId())) {
+            metrics.outcome("verify", "user-missing");
+            auditLog.record(AuthEventType.VERIFY, "user-missing", verificationToken.get().userId(), null, request.getRemoteAddr());
             return ResponseEntity.badRequest().body(Map.of("error", "User not found"));
         }
-        userService.enableUser(userOpt.get());
+        metrics.outcome("verify", "success");
+        auditLog.record(AuthEventType.VERIFY, AuthAuditLog.SUCCESS, verificationToken.get().userId(), null, request.getRemoteAddr());
         return ResponseEntity.ok(Map.of("message", "Email verified. You can now log in."));
     }
 
@@ -96,7 +160,7 @@ public class AuthController {
         if (userOpt.isEmpty()) {
             return ResponseEntity.ok(Map.of("message", "No user found with this email (nothing deleted)."));
         }
-        userRepository.delete(userOpt.get());
+        userService.deleteUser(userOpt.get());
         return ResponseEntity.ok(Map.of("message", "User deleted."));
     }
 }
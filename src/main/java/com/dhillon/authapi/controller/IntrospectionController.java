@@ -0,0 +1,93 @@
+package com.dhillon.authapi.controller;
+
+import com.dhillon.authapi.security.TokenIntrospector;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch token introspection for gateways and sidecars: one request checks many access tokens, so
+ * the HTTP and TLS overhead is paid once per batch rather than once per token. Callers need
+ * {@code ROLE_INTROSPECT}, see {@link com.dhillon.authapi.security.SecurityConfig}.
+ */
+@RestController
+public class IntrospectionController {
+    private final TokenIntrospector introspector;
+    private final int maxTokens;
+    private final JsonFactory jsonFactory;
+
+    public IntrospectionController(TokenIntrospector introspector,
+                                   @Value("${introspection.max-tokens}") int maxTokens,
+                                   @Value("${introspection.max-token-length}") int maxTokenLength) {
+        this.introspector = introspector;
+        this.maxTokens = maxTokens;
+        this.jsonFactory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder().maxStringLength(maxTokenLength).build())
+                .build();
+    }
+
+    /**
+     * Takes a JSON array of tokens and streams back an array of results in the same order. The
+     * array is read token by token, so an oversized batch is refused once it passes
+     * {@code introspection.max-tokens} rather than after the whole body has been read.
+     */
+    @PostMapping(value = "/api/auth/introspect", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void introspect(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        List<String> tokens;
+        try {
+            tokens = readTokens(request.getInputStream());
+        } catch (JsonProcessingException e) {
+            error(response, HttpStatus.BAD_REQUEST, "Expected a JSON array of tokens");
+            return;
+        }
+        if (tokens == null) {
+            error(response, HttpStatus.PAYLOAD_TOO_LARGE, "At most " + maxTokens + " tokens per request");
+            return;
+        }
+        introspector.introspect(tokens, response.getOutputStream());
+    }
+
+    // Null once the array holds more than maxTokens entries; the rest of the body is left unread
+    private List<String> readTokens(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array");
+            }
+            List<String> tokens = new ArrayList<>();
+            for (JsonToken next = parser.nextToken(); next != JsonToken.END_ARRAY; next = parser.nextToken()) {
+                if (tokens.size() == maxTokens) {
+                    return null;
+                }
+                if (next == JsonToken.VALUE_STRING) {
+                    tokens.add(parser.getText());
+                } else if (next == JsonToken.VALUE_NULL) {
+                    tokens.add(null);
+                } else {
+                    throw new JsonParseException(parser, "Expected a token string");
+                }
+            }
+            return tokens;
+        }
+    }
+
+    private static void error(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,37 @@
+package com.dhillon.authapi.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stage timers and outcome counters for the auth flows. Timers are published as
+ * {@code auth.stage} tagged with {@code flow} and {@code stage}, so a slow login can be broken
+ * down into lookup, password check and token signing; histogram buckets are configured in
+ * application.properties.
+ */
+@Component
+public class AuthMetrics {
+    private final MeterRegistry meterRegistry;
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, String flow, String stage) {
+        sample.stop(meterRegistry.timer("auth.stage", "flow", flow, "stage", stage));
+    }
+
+    public void outcome(String flow, String outcome) {
+        Counter.builder("auth.outcome")
+                .tag("flow", flow)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,20 @@
+package com.dhillon.authapi.metrics;
+
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Publishes the in-process caches that are not managed by Spring's cache abstraction, as
+ * {@code cache.gets}, {@code cache.evictions} and {@code cache.size} tagged with {@code cache}.
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    @Bean
+    public MeterBinder verifiedTokenCacheMetrics(VerifiedTokenCache verifiedTokenCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, verifiedTokenCache.nativeCache(), "verified-tokens");
+    }
+}
@@ -0,0 +1,19 @@
+package com.dhillon.authapi.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * How far a background job has got, keyed by job name. {@code owner} holds the job until
+ * {@code leaseUntil}, so only one node runs it at a time and another takes over if that node dies.
+ */
+@Document(collection = "job_checkpoints")
+public record JobCheckpoint(
+    @Id String id,
+    String position,
+    String owner,
+    Date leaseUntil,
+    Date updatedAt
+) {}
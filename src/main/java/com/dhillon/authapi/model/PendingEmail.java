@@ -0,0 +1,25 @@
+package com.dhillon.authapi.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Document(collection = "email_outbox")
+@CompoundIndex(name = "status_nextAttemptAt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public record PendingEmail(
+    @Id String id,
+    String to,
+    String subject,
+    String text,
+    Status status,
+    int attempts,
+    Date nextAttemptAt,
+    @Indexed String claimId,
+    String lastError,
+    Date createdAt
+) {
+    public enum Status { PENDING, SENDING, FAILED }
+}
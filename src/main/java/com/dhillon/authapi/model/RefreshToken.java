@@ -0,0 +1,22 @@
+package com.dhillon.authapi.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A single-use refresh token, stored as a SHA-256 hash. Every rotation adds a token to the same
+ * family; presenting a token that was already used revokes the whole family.
+ */
+@Document(collection = "refresh_tokens")
+public record RefreshToken(
+    @Id String id,
+    @Indexed(unique = true) String tokenHash,
+    @Indexed String familyId,
+    @Indexed String userId,
+    boolean used,
+    Date createdAt,
+    @Indexed(expireAfterSeconds = 0) Date expiresAt
+) {}
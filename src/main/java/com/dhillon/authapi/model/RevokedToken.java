@@ -0,0 +1,20 @@
+package com.dhillon.authapi.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * A revoked access token, or with a null {@code tokenId} every token issued to {@code userId} up to
+ * {@code revokedAt}. Kept only until the last affected token would have expired anyway.
+ */
+@Document(collection = "revoked_tokens")
+public record RevokedToken(
+    @Id String id,
+    String tokenId,
+    String userId,
+    @Indexed Date revokedAt,
+    @Indexed(expireAfterSeconds = 0) Date expiresAt
+) {}
@@ -0,0 +1,23 @@
+package com.dhillon.authapi.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * An ES256 key pair identified by its {@code kid}. The public key is X.509-encoded; the PKCS#8
+ * private key is stored AES-GCM encrypted (IV followed by ciphertext). A key signs tokens from
+ * {@code activatesAt} until a newer key activates, and is published for verification until
+ * {@code expiresAt}.
+ */
+@Document(collection = "signing_keys")
+public record SigningKey(
+    @Id String kid,
+    byte[] publicKey,
+    byte[] encryptedPrivateKey,
+    Date createdAt,
+    Date activatesAt,
+    @Indexed(expireAfterSeconds = 0) Date expiresAt
+) {}
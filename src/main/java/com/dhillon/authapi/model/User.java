@@ -1,6 +1,7 @@
 package com.dhillon.authapi.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Set;
@@ -8,9 +9,14 @@ import java.util.Set;
 @Document(collection = "users")
 public record User(
     @Id String id,
-    String username,
-    String email,
+    @Indexed(unique = true) String username,
+    @Indexed(unique = true) String email,
     String password,
     boolean enabled,
     Set<String> roles
-) {}
+) {
+    /**
+     * Roles given to self-registered users; roles sent with a registration are ignored.
+     */
+    public static final Set<String> DEFAULT_ROLES = Set.of("ROLE_USER");
+}
@@ -0,0 +1,14 @@
+package com.dhillon.authapi.model;
+
+import java.util.Set;
+
+/**
+ * The subset of a {@link User} document needed to authenticate a login.
+ */
+public record UserCredentials(
+    String id,
+    String email,
+    String password,
+    boolean enabled,
+    Set<String> roles
+) {}
@@ -0,0 +1,24 @@
+package com.dhillon.authapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Set;
+
+/**
+ * One line of a bulk user import or export. Imports give either a plain-text {@code password} or
+ * an existing BCrypt {@code passwordHash}; exports always carry the hash.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserTransferRecord(
+    String id,
+    String username,
+    String email,
+    String password,
+    String passwordHash,
+    Boolean enabled,
+    Set<String> roles
+) {
+    public static UserTransferRecord of(User user) {
+        return new UserTransferRecord(user.id(), user.username(), user.email(), null, user.password(), user.enabled(), user.roles());
+    }
+}
@@ -1,6 +1,7 @@
 package com.dhillon.authapi.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -8,7 +9,8 @@ import java.util.Date;
 @Document(collection = "verification_tokens")
 public record VerificationToken(
     @Id String id,
-    String token,
-    String userId,
-    Date expiryDate
+    @Indexed(unique = true) String token,
+    @Indexed String userId,
+    // TTL index: Mongo removes the token once expiryDate has passed
+    @Indexed(expireAfterSeconds = 0) Date expiryDate
 ) {}
@@ -0,0 +1,19 @@
+package com.dhillon.authapi.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * The part of {@link MongoRepository} the application uses: CRUD plus {@code insert}, which Spring
+ * Data routes to the Mongo implementation as it would for {@link MongoRepository}. Repositories with
+ * an in-memory stand-in extend this instead, so the stand-in implements the whole contract.
+ */
+@NoRepositoryBean
+public interface DocumentRepository<T> extends ListCrudRepository<T, String> {
+    /**
+     * Inserts a new document, failing with a {@code DuplicateKeyException} if the id or a unique
+     * field is taken, where {@code save} would overwrite.
+     */
+    <S extends T> S insert(S entity);
+}
@@ -0,0 +1,69 @@
+package com.dhillon.authapi.repository;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoServerException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tells which unique index rejected a write. Mongo reports a duplicate key with error code 11000
+ * and names the index only in its message ({@code ... index: email dup key: ...}), so this is the
+ * one place that message is read.
+ */
+public final class DuplicateKeys {
+    public static final int DUPLICATE_KEY = 11000;
+    public static final String ID_INDEX = "_id_";
+
+    private static final Pattern INDEX = Pattern.compile(" index: (\\S+) dup key");
+
+    private DuplicateKeys() {
+    }
+
+    /**
+     * The index named by the Mongo error behind {@code ex}, or empty if there is none.
+     */
+    public static Optional<String> index(DuplicateKeyException ex) {
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoWriteException write) {
+                return index(write.getError().getCode(), write.getError().getMessage());
+            }
+            if (cause instanceof MongoCommandException command) {
+                return index(command.getErrorCode(), command.getErrorMessage());
+            }
+            if (cause instanceof MongoServerException server) {
+                return index(server.getCode(), server.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<String> index(BulkWriteError error) {
+        return index(error.getCode(), error.getMessage());
+    }
+
+    /**
+     * The exception Spring Data raises when Mongo rejects an insert on {@code index}, for stores
+     * that enforce the same unique indexes themselves.
+     */
+    public static DuplicateKeyException exception(String collection, String index, String value) {
+        WriteError error = new WriteError(DUPLICATE_KEY, "E11000 duplicate key error collection: " + collection
+                + " index: " + index + " dup key: { : \"" + value + "\" }", new BsonDocument());
+        return new DuplicateKeyException(error.getMessage(), new MongoWriteException(error, new ServerAddress()));
+    }
+
+    private static Optional<String> index(int code, String message) {
+        if (code != DUPLICATE_KEY || message == null) {
+            return Optional.empty();
+        }
+        Matcher index = INDEX.matcher(message);
+        return index.find() ? Optional.of(index.group(1)) : Optional.empty();
+    }
+}
@@ -0,0 +1,11 @@
+package com.dhillon.authapi.repository;
+
+import com.dhillon.authapi.model.PendingEmail;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Collection;
+import java.util.List;
+
+public interface PendingEmailRepository extends MongoRepository<PendingEmail, String> {
+    List<PendingEmail> findByClaimId(String claimId);
+    long countByStatusIn(Collection<PendingEmail.Status> statuses);
+}
@@ -0,0 +1,13 @@
+package com.dhillon.authapi.repository;
+
+import com.dhillon.authapi.model.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    long deleteByFamilyId(String familyId);
+
+    long deleteByUserId(String userId);
+}
@@ -0,0 +1,10 @@
+package com.dhillon.authapi.repository;
+
+import com.dhillon.authapi.model.RevokedToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Date;
+import java.util.List;
+
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+    List<RevokedToken> findByRevokedAtGreaterThanEqualAndExpiresAtAfterOrderByRevokedAtAsc(Date revokedAt, Date now);
+}
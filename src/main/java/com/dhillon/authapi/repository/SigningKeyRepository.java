@@ -0,0 +1,7 @@
+package com.dhillon.authapi.repository;
+
+import com.dhillon.authapi.model.SigningKey;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface SigningKeyRepository extends MongoRepository<SigningKey, String> {
+}
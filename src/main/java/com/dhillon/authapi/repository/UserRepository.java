@@ -1,10 +1,38 @@
 package com.dhillon.authapi.repository;
 
 import com.dhillon.authapi.model.User;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import com.dhillon.authapi.model.UserCredentials;
+import org.springframework.data.mongodb.repository.Query;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends DocumentRepository<User>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ 'email': 1, 'password': 1, 'enabled': 1, 'roles': 1 }")
+    Optional<UserCredentials> findCredentialsByEmail(String email);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'email': 1, 'enabled': 1, 'roles': 1 }")
+    Optional<UserCredentials> findCredentialsById(String id);
+
+    /**
+     * Returns the id, email and username of every user holding one of the emails or usernames.
+     */
+    @Query(value = "{ '$or': [ { 'email': { '$in': ?0 } }, { 'username': { '$in': ?1 } } ] }", fields = "{ 'email': 1, 'username': 1 }")
+    List<User> findIdentitiesByEmailInOrUsernameIn(Collection<String> emails, Collection<String> usernames);
+
+    /**
+     * Streams every user from a cursor; close the stream when done.
+     */
+    Stream<User> streamAllBy();
+
+    /**
+     * Deletes the users that are still unverified; users verified since they were looked up are kept.
+     *
+     * @return the number of users deleted
+     */
+    long deleteByIdInAndEnabledIsFalse(Collection<String> ids);
 }
@@ -0,0 +1,43 @@
+package com.dhillon.authapi.repository;
+
+import com.dhillon.authapi.model.User;
+import com.mongodb.bulk.BulkWriteError;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * User updates that need more than a derived query.
+ */
+public interface UserRepositoryCustom {
+    /**
+     * Sets {@code enabled} on the user without rewriting the rest of it.
+     *
+     * @return the user (at least its id and username), or empty if no user has this id
+     */
+    Optional<User> enableById(String id);
+
+    /**
+     * Replaces the password hash, unless it has changed since {@code currentHash} was read.
+     *
+     * @return the user (at least its id and username), or empty if it was not updated
+     */
+    Optional<User> replacePassword(String id, String currentHash, String newHash);
+
+    /**
+     * Inserts the users in one unordered bulk write, so a failed insert does not stop the rest.
+     *
+     * @return the error of each failed insert, keyed by its index in {@code users}
+     */
+    Map<Integer, BulkWriteError> bulkInsert(List<User> users);
+
+    /**
+     * Finds unverified users with {@code afterId < id < beforeId} in id order. Ids are ObjectIds, so
+     * this is also creation order.
+     *
+     * @param afterId exclusive lower bound, or null to start from the first user
+     * @return at most {@code limit} users, with only their id and username
+     */
+    List<User> findUnverifiedBetween(String afterId, String beforeId, int limit);
+}
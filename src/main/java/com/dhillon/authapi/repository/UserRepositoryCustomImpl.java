@@ -0,0 +1,67 @@
+package com.dhillon.authapi.repository;
+
+import com.dhillon.authapi.model.User;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    private final MongoOperations mongoOperations;
+
+    UserRepositoryCustomImpl(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public Optional<User> enableById(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("username");
+        return Optional.ofNullable(mongoOperations.findAndModify(query, new Update().set("enabled", true), User.class));
+    }
+
+    @Override
+    public Optional<User> replacePassword(String id, String currentHash, String newHash) {
+        Query query = Query.query(Criteria.where("_id").is(id).and("password").is(currentHash));
+        query.fields().include("username");
+        return Optional.ofNullable(mongoOperations.findAndModify(query, new Update().set("password", newHash), User.class));
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkInsert(List<User> users) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(users).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, BulkWriteError> failures = new TreeMap<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error);
+            }
+            return failures;
+        }
+    }
+
+    @Override
+    public List<User> findUnverifiedBetween(String afterId, String beforeId, int limit) {
+        Criteria id = Criteria.where("_id").lt(new ObjectId(beforeId));
+        if (afterId != null) {
+            id = id.gt(new ObjectId(afterId));
+        }
+        Query query = Query.query(id.and("enabled").is(false)).with(Sort.by("_id")).limit(limit);
+        query.fields().include("username");
+        return mongoOperations.find(query, User.class);
+    }
+}
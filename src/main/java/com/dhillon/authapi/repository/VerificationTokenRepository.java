@@ -1,9 +1,20 @@
 package com.dhillon.authapi.repository;
 
 import com.dhillon.authapi.model.VerificationToken;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Collection;
+import java.util.Date;
 import java.util.Optional;
 
-public interface VerificationTokenRepository extends MongoRepository<VerificationToken, String> {
-    Optional<VerificationToken> findByToken(String token);
+public interface VerificationTokenRepository extends DocumentRepository<VerificationToken> {
+    /**
+     * Atomically removes and returns the token if it has not expired yet (findAndRemove).
+     */
+    Optional<VerificationToken> deleteByTokenAndExpiryDateAfter(String token, Date now);
+
+    /**
+     * Deletes every token issued to one of the users.
+     *
+     * @return the number of tokens deleted
+     */
+    long deleteByUserIdIn(Collection<String> userIds);
 }
@@ -0,0 +1,466 @@
+package com.dhillon.authapi.repository.inmemory;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.VerificationToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk form of the {@link UserDirectory}: a snapshot of every user and verification token,
+ * plus numbered write-ahead log segments holding the changes made since. Both are sequences of
+ * length-prefixed, checksummed records and are read back through memory-mapped windows.
+ * <p>
+ * Writes go to the open segment. A snapshot first {@link #rotate() rotates} to a new segment
+ * and records its number; on recovery only that segment and later ones are replayed over the
+ * snapshot. Records are whole-value puts and deletes, so replaying a change the snapshot already
+ * caught is harmless.
+ * <p>
+ * Not thread-safe: the directory serialises {@link #append appends} and {@link #rotate()} under
+ * its write lock and runs one {@link #writeSnapshot} at a time.
+ */
+final class DirectoryFiles implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryFiles.class);
+    private static final byte PUT_USER = 1;
+    private static final byte DELETE_USER = 2;
+    private static final byte PUT_TOKEN = 3;
+    private static final byte DELETE_TOKEN = 4;
+    private static final int SNAPSHOT_MAGIC = 0x55445331;
+    private static final String SNAPSHOT = "directory.snapshot";
+    private static final String SEGMENT_PREFIX = "directory.wal.";
+    // Record header: payload length, then CRC32C of the payload
+    private static final int HEADER_BYTES = 8;
+    private static final long WINDOW_BYTES = 64L << 20;
+
+    private final Path directory;
+    private final boolean fsync;
+    private final Encoder encoder = new Encoder();
+    private FileChannel segment;
+    private long segmentNumber;
+
+    DirectoryFiles(Path directory, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+    }
+
+    /**
+     * Receives the records read back during {@link #recover}.
+     */
+    interface Replay {
+        void putUser(User user);
+
+        void deleteUser(String id);
+
+        void putToken(VerificationToken token);
+
+        void deleteToken(String token);
+    }
+
+    /**
+     * Loads the snapshot, replays every later segment, then opens a fresh segment for new writes.
+     * A torn tail on the newest segment is cut off; a corrupt record in any earlier one fails the
+     * recovery.
+     */
+    void recover(Replay replay) throws IOException {
+        long firstSegment = 0;
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            try (MappedReader in = new MappedReader(snapshot)) {
+                if (!in.ensure(12) || in.buffer.getInt() != SNAPSHOT_MAGIC) {
+                    throw new IOException("Not a user directory snapshot: " + snapshot);
+                }
+                firstSegment = in.buffer.getLong();
+                if (readRecords(in, replay) >= 0) {
+                    throw new IOException("Snapshot is truncated or corrupt: " + snapshot);
+                }
+            }
+        }
+        List<Long> segments = new ArrayList<>();
+        for (long number : segmentNumbers()) {
+            if (number < firstSegment) {
+                Files.delete(segmentPath(number));
+            } else {
+                segments.add(number);
+            }
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segmentPath(segments.get(i));
+            long bad;
+            try (MappedReader in = new MappedReader(path)) {
+                bad = readRecords(in, replay);
+            }
+            if (bad < 0) {
+                continue;
+            }
+            // Only the newest segment can have been cut short by a crash; damage anywhere else
+            // means records after it would be replayed over a gap
+            if (i < segments.size() - 1) {
+                throw new IOException("Corrupt record at offset " + bad + " of " + path
+                        + ", which is not the newest log segment; refusing to replay later segments over it");
+            }
+            logger.warn("Dropping a torn record at offset {} of {}", bad, path);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(bad);
+            }
+        }
+        openSegment(segments.isEmpty() ? firstSegment : segments.get(segments.size() - 1) + 1);
+    }
+
+    void appendUser(User user) throws IOException {
+        encoder.begin(PUT_USER);
+        encodeUser(user);
+        append();
+    }
+
+    void appendUserDeleted(String id) throws IOException {
+        encoder.begin(DELETE_USER);
+        encoder.putString(id);
+        append();
+    }
+
+    void appendToken(VerificationToken token) throws IOException {
+        encoder.begin(PUT_TOKEN);
+        encodeToken(token);
+        append();
+    }
+
+    void appendTokenDeleted(String token) throws IOException {
+        encoder.begin(DELETE_TOKEN);
+        encoder.putString(token);
+        append();
+    }
+
+    /**
+     * Closes the current segment and opens the next; returns the new segment's number.
+     */
+    long rotate() throws IOException {
+        segment.close();
+        openSegment(segmentNumber + 1);
+        return segmentNumber;
+    }
+
+    /**
+     * Writes a snapshot that segment {@code firstSegment} onwards will be replayed over, swaps it in
+     * atomically and deletes the segments it supersedes.
+     */
+    void writeSnapshot(long firstSegment, Iterable<User> users, Iterable<VerificationToken> tokens) throws IOException {
+        Path temporary = directory.resolve(SNAPSHOT + ".tmp");
+        Encoder records = new Encoder();
+        try (MappedWriter out = new MappedWriter(temporary)) {
+            out.ensure(12);
+            out.buffer.putInt(SNAPSHOT_MAGIC).putLong(firstSegment);
+            for (User user : users) {
+                records.begin(PUT_USER);
+                encodeUser(user, records);
+                out.write(records.finish());
+            }
+            for (VerificationToken token : tokens) {
+                records.begin(PUT_TOKEN);
+                encodeToken(token, records);
+                out.write(records.finish());
+            }
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (long number : segmentNumbers()) {
+            if (number < firstSegment) {
+                Files.delete(segmentPath(number));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+    }
+
+    private void append() throws IOException {
+        ByteBuffer record = encoder.finish();
+        while (record.hasRemaining()) {
+            segment.write(record);
+        }
+        if (fsync) {
+            segment.force(false);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        segment = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentNumber = number;
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%019d", number));
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Applies records until the end of the file. Returns -1, or the offset of the torn or corrupt
+     * record it stopped at.
+     */
+    private static long readRecords(MappedReader in, Replay replay) throws IOException {
+        CRC32C crc = new CRC32C();
+        while (in.remaining() > 0) {
+            long start = in.offset();
+            if (!in.ensure(HEADER_BYTES)) {
+                return start;
+            }
+            int length = in.buffer.getInt();
+            int checksum = in.buffer.getInt();
+            if (length <= 0 || !in.ensure(length)) {
+                return start;
+            }
+            ByteBuffer payload = in.buffer.slice(in.buffer.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return start;
+            }
+            in.buffer.position(in.buffer.position() + length);
+            switch (payload.get()) {
+                case PUT_USER -> replay.putUser(decodeUser(payload));
+                case DELETE_USER -> replay.deleteUser(getString(payload));
+                case PUT_TOKEN -> replay.putToken(decodeToken(payload));
+                case DELETE_TOKEN -> replay.deleteToken(getString(payload));
+                default -> throw new IOException("Unknown record type at offset " + start);
+            }
+        }
+        return -1;
+    }
+
+    private void encodeUser(User user) {
+        encodeUser(user, encoder);
+    }
+
+    private static void encodeUser(User user, Encoder out) {
+        out.putString(user.id());
+        out.putString(user.username());
+        out.putString(user.email());
+        out.putString(user.password());
+        out.putByte(user.enabled() ? 1 : 0);
+        if (user.roles() == null) {
+            out.putInt(-1);
+        } else {
+            out.putInt(user.roles().size());
+            user.roles().forEach(out::putString);
+        }
+    }
+
+    private static User decodeUser(ByteBuffer in) {
+        String id = getString(in);
+        String username = getString(in);
+        String email = getString(in);
+        String password = getString(in);
+        boolean enabled = in.get() != 0;
+        int roleCount = in.getInt();
+        Set<String> roles = null;
+        if (roleCount >= 0) {
+            roles = new HashSet<>();
+            for (int i = 0; i < roleCount; i++) {
+                roles.add(getString(in));
+            }
+        }
+        return new User(id, username, email, password, enabled, roles);
+    }
+
+    private void encodeToken(VerificationToken token) {
+        encodeToken(token, encoder);
+    }
+
+    private static void encodeToken(VerificationToken token, Encoder out) {
+        out.putString(token.id());
+        out.putString(token.token());
+        out.putString(token.userId());
+        out.putLong(token.expiryDate() == null ? Long.MIN_VALUE : token.expiryDate().getTime());
+    }
+
+    private static VerificationToken decodeToken(ByteBuffer in) {
+        String id = getString(in);
+        String token = getString(in);
+        String userId = getString(in);
+        long expiry = in.getLong();
+        return new VerificationToken(id, token, userId, expiry == Long.MIN_VALUE ? null : new Date(expiry));
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds one record at a time in a reusable heap buffer.
+     */
+    private static final class Encoder {
+        private ByteBuffer buffer = ByteBuffer.allocate(1024);
+        private final CRC32C crc = new CRC32C();
+
+        void begin(byte type) {
+            buffer.clear();
+            buffer.position(HEADER_BYTES);
+            buffer.put(type);
+        }
+
+        void putByte(int value) {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void putInt(int value) {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Fills in the header and returns the record, ready to write.
+         */
+        ByteBuffer finish() {
+            int length = buffer.position() - HEADER_BYTES;
+            crc.reset();
+            crc.update(buffer.array(), HEADER_BYTES, length);
+            buffer.putInt(0, length);
+            buffer.putInt(4, (int) crc.getValue());
+            return buffer.flip();
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    /**
+     * Reads a file through a sliding memory-mapped window, so files over 2 GiB still work.
+     */
+    private static final class MappedReader implements Closeable {
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer buffer;
+
+        MappedReader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            size = channel.size();
+            map(0, WINDOW_BYTES);
+        }
+
+        long offset() {
+            return windowStart + buffer.position();
+        }
+
+        long remaining() {
+            return size - offset();
+        }
+
+        /**
+         * Makes the next {@code bytes} bytes readable from {@link #buffer}; false if the file ends first.
+         */
+        boolean ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (remaining() < bytes) {
+                return false;
+            }
+            map(offset(), Math.max(WINDOW_BYTES, bytes));
+            return true;
+        }
+
+        private void map(long start, long length) throws IOException {
+            windowStart = start;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(length, size - start));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a file through a sliding memory-mapped window, then trims it to the bytes written.
+     */
+    private static final class MappedWriter implements Closeable {
+        private final FileChannel channel;
+        private long windowStart;
+        private MappedByteBuffer buffer;
+
+        MappedWriter(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, WINDOW_BYTES);
+        }
+
+        void write(ByteBuffer record) throws IOException {
+            ensure(record.remaining());
+            buffer.put(record);
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                buffer.force();
+                windowStart += buffer.position();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_BYTES, bytes));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer.force();
+            channel.truncate(windowStart + buffer.position());
+            channel.force(true);
+            channel.close();
+        }
+    }
+}
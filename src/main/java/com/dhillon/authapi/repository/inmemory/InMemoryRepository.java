@@ -0,0 +1,69 @@
+package com.dhillon.authapi.repository.inmemory;
+
+import com.dhillon.authapi.repository.DocumentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link DocumentRepository} in terms of a few primitives.
+ */
+abstract class InMemoryRepository<T> implements DocumentRepository<T> {
+
+    abstract T doInsert(T entity);
+
+    abstract T doSave(T entity);
+
+    abstract String idOf(T entity);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T> S insert(S entity) {
+        return (S) doInsert(entity);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T> S save(S entity) {
+        return (S) doSave(entity);
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return findById(id).isPresent();
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        List<T> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        findAll().forEach(this::delete);
+    }
+}
@@ -0,0 +1,139 @@
+package com.dhillon.authapi.repository.inmemory;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.repository.UserRepository;
+import com.mongodb.MongoWriteException;
+import com.mongodb.WriteError;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * {@link UserRepository} backed by the {@link UserDirectory}; takes the place of the Mongo
+ * repository under the {@code inmemory} profile.
+ */
+@Repository
+@Primary
+@Profile("inmemory")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+    private final UserDirectory directory;
+
+    public InMemoryUserRepository(UserDirectory directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return directory.findByEmail(email);
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return directory.findByUsername(username);
+    }
+
+    @Override
+    public Optional<UserCredentials> findCredentialsByEmail(String email) {
+        return directory.findByEmail(email)
+                .map(user -> new UserCredentials(user.id(), user.email(), user.password(), user.enabled(), user.roles()));
+    }
+
+    @Override
+    public Optional<UserCredentials> findCredentialsById(String id) {
+        // Same fields as the Mongo projection, which leaves out the password hash
+        return directory.findById(id)
+                .map(user -> new UserCredentials(user.id(), user.email(), null, user.enabled(), user.roles()));
+    }
+
+    @Override
+    public Optional<User> enableById(String id) {
+        return directory.enable(id);
+    }
+
+    @Override
+    public Optional<User> replacePassword(String id, String currentHash, String newHash) {
+        return directory.replacePassword(id, currentHash, newHash);
+    }
+
+    @Override
+    public List<User> findIdentitiesByEmailInOrUsernameIn(Collection<String> emails, Collection<String> usernames) {
+        return Stream.concat(emails.stream().map(directory::findByEmail), usernames.stream().map(directory::findByUsername))
+                .flatMap(Optional::stream)
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public Stream<User> streamAllBy() {
+        return directory.users().stream();
+    }
+
+    @Override
+    public Map<Integer, BulkWriteError> bulkInsert(List<User> users) {
+        Map<Integer, BulkWriteError> failures = new TreeMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            try {
+                directory.insert(users.get(i));
+            } catch (DuplicateKeyException e) {
+                WriteError error = ((MongoWriteException) e.getCause()).getError();
+                failures.put(i, new BulkWriteError(error.getCode(), error.getMessage(), error.getDetails(), i));
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public List<User> findUnverifiedBetween(String afterId, String beforeId, int limit) {
+        return directory.findUnverifiedBetween(afterId, beforeId, limit);
+    }
+
+    @Override
+    public long deleteByIdInAndEnabledIsFalse(Collection<String> ids) {
+        return ids.stream().filter(directory::deleteUnverified).count();
+    }
+
+    @Override
+    public Optional<User> findById(String id) {
+        return directory.findById(id);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return List.copyOf(directory.users());
+    }
+
+    @Override
+    public long count() {
+        return directory.userCount();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        directory.delete(id);
+    }
+
+    @Override
+    User doInsert(User user) {
+        return directory.insert(user);
+    }
+
+    @Override
+    User doSave(User user) {
+        return directory.save(user);
+    }
+
+    @Override
+    String idOf(User user) {
+        return user.id();
+    }
+}
@@ -0,0 +1,75 @@
+package com.dhillon.authapi.repository.inmemory;
+
+import com.dhillon.authapi.model.VerificationToken;
+import com.dhillon.authapi.repository.VerificationTokenRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link VerificationTokenRepository} backed by the {@link UserDirectory}; takes the place of the
+ * Mongo repository under the {@code inmemory} profile.
+ */
+@Repository
+@Primary
+@Profile("inmemory")
+public class InMemoryVerificationTokenRepository extends InMemoryRepository<VerificationToken> implements VerificationTokenRepository {
+    private final UserDirectory directory;
+
+    public InMemoryVerificationTokenRepository(UserDirectory directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Optional<VerificationToken> deleteByTokenAndExpiryDateAfter(String token, Date now) {
+        return directory.consumeToken(token, now);
+    }
+
+    @Override
+    public long deleteByUserIdIn(Collection<String> userIds) {
+        return userIds.stream()
+                .flatMap(userId -> directory.tokenValuesOf(userId).stream())
+                .filter(directory::deleteToken)
+                .count();
+    }
+
+    @Override
+    public Optional<VerificationToken> findById(String id) {
+        return directory.findTokenById(id);
+    }
+
+    @Override
+    public List<VerificationToken> findAll() {
+        return List.copyOf(directory.tokens());
+    }
+
+    @Override
+    public long count() {
+        return directory.tokens().size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        directory.findTokenById(id).ifPresent(token -> directory.deleteToken(token.token()));
+    }
+
+    @Override
+    VerificationToken doInsert(VerificationToken token) {
+        return directory.saveToken(token, false);
+    }
+
+    @Override
+    VerificationToken doSave(VerificationToken token) {
+        return directory.saveToken(token, true);
+    }
+
+    @Override
+    String idOf(VerificationToken token) {
+        return token.id();
+    }
+}
@@ -0,0 +1,451 @@
+package com.dhillon.authapi.repository.inmemory;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.VerificationToken;
+import com.dhillon.authapi.repository.DuplicateKeys;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Users and verification tokens held in memory for the {@code inmemory} profile, with email and
+ * username indexes that enforce the same uniqueness as the Mongo indexes. Reads are lock-free
+ * lookups; unverified users are also kept in id order and verification tokens by user, so purge
+ * batches read ranges rather than scanning everything. Writes are serialised, logged to {@link DirectoryFiles} before they are applied,
+ * and periodically folded into a snapshot so restarts replay only a short log.
+ */
+@Component
+@Profile("inmemory")
+public class UserDirectory {
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+
+    private final ConcurrentMap<String, User> users = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> userIdsByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> userIdsByUsername = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, VerificationToken> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> tokensById = new ConcurrentHashMap<>();
+    private final NavigableSet<String> unverifiedUserIds = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<String, Set<String>> tokensByUserId = new ConcurrentHashMap<>();
+    // Users share one Set instance per distinct combination of roles
+    private final ConcurrentMap<Set<String>, Set<String>> roleSets = new ConcurrentHashMap<>();
+    private final DirectoryFiles files;
+    private final Object writeLock = new Object();
+    private long changesSinceSnapshot;
+
+    public UserDirectory(@Value("${user-directory.path}") String path,
+                         @Value("${user-directory.wal.fsync}") boolean fsync) throws IOException {
+        long start = System.nanoTime();
+        this.files = new DirectoryFiles(Path.of(path), fsync);
+        files.recover(new DirectoryFiles.Replay() {
+            @Override
+            public void putUser(User user) {
+                put(compact(user));
+                changesSinceSnapshot++;
+            }
+
+            @Override
+            public void deleteUser(String id) {
+                remove(id);
+                changesSinceSnapshot++;
+            }
+
+            @Override
+            public void putToken(VerificationToken token) {
+                putVerificationToken(token);
+                changesSinceSnapshot++;
+            }
+
+            @Override
+            public void deleteToken(String token) {
+                removeVerificationToken(token);
+                changesSinceSnapshot++;
+            }
+        });
+        logger.info("Loaded {} users and {} verification tokens from {} in {} ms", users.size(), tokens.size(),
+                path, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public Optional<User> findById(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(users.get(id));
+    }
+
+    public Optional<User> findByEmail(String email) {
+        return email == null ? Optional.empty() : lookup(userIdsByEmail.get(email)).filter(user -> email.equals(user.email()));
+    }
+
+    public Optional<User> findByUsername(String username) {
+        return username == null ? Optional.empty() : lookup(userIdsByUsername.get(username)).filter(user -> username.equals(user.username()));
+    }
+
+    public Collection<User> users() {
+        return users.values();
+    }
+
+    /**
+     * Returns up to {@code limit} users that are not enabled, in id order, with ids after
+     * {@code afterId} (or from the start when null) and before {@code beforeId}.
+     */
+    public List<User> findUnverifiedBetween(String afterId, String beforeId, int limit) {
+        if (afterId != null && afterId.compareTo(beforeId) >= 0) {
+            return List.of();
+        }
+        NavigableSet<String> range = afterId == null ? unverifiedUserIds.headSet(beforeId, false)
+                : unverifiedUserIds.subSet(afterId, false, beforeId, false);
+        List<User> found = new ArrayList<>();
+        for (String id : range) {
+            if (found.size() >= limit) {
+                break;
+            }
+            User user = users.get(id);
+            if (user != null && !user.enabled()) {
+                found.add(user);
+            }
+        }
+        return found;
+    }
+
+    public long userCount() {
+        return users.size();
+    }
+
+    /**
+     * Adds a user, failing if the id, email or username is taken. A null id is assigned one.
+     */
+    public User insert(User user) {
+        synchronized (writeLock) {
+            User stored = compact(withId(user));
+            if (users.containsKey(stored.id())) {
+                throw duplicate("users", "_id_", stored.id());
+            }
+            checkUnique(stored);
+            log(() -> files.appendUser(stored));
+            put(stored);
+            return stored;
+        }
+    }
+
+    /**
+     * Adds or replaces a user by id, failing if another user has the email or username.
+     */
+    public User save(User user) {
+        synchronized (writeLock) {
+            User stored = compact(withId(user));
+            checkUnique(stored);
+            log(() -> files.appendUser(stored));
+            put(stored);
+            return stored;
+        }
+    }
+
+    public Optional<User> enable(String id) {
+        synchronized (writeLock) {
+            Optional<User> current = findById(id);
+            if (current.isEmpty() || current.get().enabled()) {
+                return current;
+            }
+            User user = current.get();
+            User enabled = new User(user.id(), user.username(), user.email(), user.password(), true, user.roles());
+            log(() -> files.appendUser(enabled));
+            put(enabled);
+            return Optional.of(enabled);
+        }
+    }
+
+    public Optional<User> replacePassword(String id, String currentHash, String newHash) {
+        synchronized (writeLock) {
+            Optional<User> current = findById(id).filter(user -> Objects.equals(user.password(), currentHash));
+            if (current.isEmpty()) {
+                return current;
+            }
+            User user = current.get();
+            User updated = new User(user.id(), user.username(), user.email(), newHash, user.enabled(), user.roles());
+            log(() -> files.appendUser(updated));
+            put(updated);
+            return Optional.of(updated);
+        }
+    }
+
+    public boolean delete(String id) {
+        synchronized (writeLock) {
+            if (id == null || !users.containsKey(id)) {
+                return false;
+            }
+            log(() -> files.appendUserDeleted(id));
+            remove(id);
+            return true;
+        }
+    }
+
+    /**
+     * Deletes the user if it exists and is not enabled.
+     */
+    public boolean deleteUnverified(String id) {
+        synchronized (writeLock) {
+            User user = id == null ? null : users.get(id);
+            if (user == null || user.enabled()) {
+                return false;
+            }
+            log(() -> files.appendUserDeleted(id));
+            remove(id);
+            return true;
+        }
+    }
+
+    public Optional<VerificationToken> findToken(String token) {
+        return token == null ? Optional.empty() : Optional.ofNullable(tokens.get(token));
+    }
+
+    public Optional<VerificationToken> findTokenById(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(tokensById.get(id)).map(tokens::get);
+    }
+
+    public Collection<VerificationToken> tokens() {
+        return tokens.values();
+    }
+
+    /**
+     * Returns the values of the verification tokens issued to the user.
+     */
+    public List<String> tokenValuesOf(String userId) {
+        Set<String> values = userId == null ? null : tokensByUserId.get(userId);
+        return values == null ? List.of() : List.copyOf(values);
+    }
+
+    /**
+     * Adds or replaces a verification token. A null id is assigned one; the token value must be
+     * unique unless {@code replace} is set and it belongs to the same id.
+     */
+    public VerificationToken saveToken(VerificationToken token, boolean replace) {
+        synchronized (writeLock) {
+            VerificationToken stored = token.id() != null ? token
+                    : new VerificationToken(new ObjectId().toHexString(), token.token(), token.userId(), token.expiryDate());
+            VerificationToken existing = tokens.get(stored.token());
+            if (existing != null && !(replace && existing.id().equals(stored.id()))) {
+                throw duplicate("verification_tokens", "token", stored.token());
+            }
+            if (!replace && tokensById.containsKey(stored.id())) {
+                throw duplicate("verification_tokens", "_id_", stored.id());
+            }
+            log(() -> files.appendToken(stored));
+            putVerificationToken(stored);
+            return stored;
+        }
+    }
+
+    /**
+     * Removes and returns the token if it expires after {@code now}.
+     */
+    public Optional<VerificationToken> consumeToken(String token, Date now) {
+        synchronized (writeLock) {
+            VerificationToken found = token == null ? null : tokens.get(token);
+            if (found == null || (found.expiryDate() != null && !found.expiryDate().after(now))) {
+                return Optional.empty();
+            }
+            log(() -> files.appendTokenDeleted(token));
+            removeVerificationToken(token);
+            return Optional.of(found);
+        }
+    }
+
+    public boolean deleteToken(String token) {
+        synchronized (writeLock) {
+            if (token == null || !tokens.containsKey(token)) {
+                return false;
+            }
+            log(() -> files.appendTokenDeleted(token));
+            removeVerificationToken(token);
+            return true;
+        }
+    }
+
+    /**
+     * Drops expired verification tokens, as the TTL index does in Mongo, and writes a snapshot if
+     * anything changed since the last one.
+     */
+    @Scheduled(fixedDelayString = "${user-directory.snapshot-interval}", initialDelayString = "${user-directory.snapshot-interval}")
+    public synchronized void snapshot() {
+        Date now = new Date();
+        tokens.values().stream()
+                .filter(token -> token.expiryDate() != null && !token.expiryDate().after(now))
+                .map(VerificationToken::token)
+                .toList()
+                .forEach(this::deleteToken);
+        long firstSegment;
+        synchronized (writeLock) {
+            if (changesSinceSnapshot == 0) {
+                return;
+            }
+            changesSinceSnapshot = 0;
+            try {
+                firstSegment = files.rotate();
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Unable to rotate the user directory log", e);
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            files.writeSnapshot(firstSegment, users.values(), tokens.values());
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Unable to write the user directory snapshot", e);
+        }
+        logger.info("Wrote a snapshot of {} users in {} ms", users.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        try {
+            snapshot();
+        } finally {
+            synchronized (writeLock) {
+                files.close();
+            }
+        }
+    }
+
+    private Optional<User> lookup(String id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(users.get(id));
+    }
+
+    private void checkUnique(User user) {
+        String emailOwner = user.email() == null ? null : userIdsByEmail.get(user.email());
+        if (emailOwner != null && !emailOwner.equals(user.id())) {
+            throw duplicate("users", "email", user.email());
+        }
+        String usernameOwner = user.username() == null ? null : userIdsByUsername.get(user.username());
+        if (usernameOwner != null && !usernameOwner.equals(user.id())) {
+            throw duplicate("users", "username", user.username());
+        }
+    }
+
+    // The same exception as a Mongo insert, so callers read the index with DuplicateKeys either way
+    private static DuplicateKeyException duplicate(String collection, String index, String value) {
+        return DuplicateKeys.exception(collection, index, value);
+    }
+
+    private void put(User user) {
+        User previous = users.put(user.id(), user);
+        if (previous != null) {
+            if (previous.email() != null && !previous.email().equals(user.email())) {
+                userIdsByEmail.remove(previous.email(), previous.id());
+            }
+            if (previous.username() != null && !previous.username().equals(user.username())) {
+                userIdsByUsername.remove(previous.username(), previous.id());
+            }
+        }
+        if (user.email() != null) {
+            userIdsByEmail.put(user.email(), user.id());
+        }
+        if (user.username() != null) {
+            userIdsByUsername.put(user.username(), user.id());
+        }
+        if (user.enabled()) {
+            unverifiedUserIds.remove(user.id());
+        } else {
+            unverifiedUserIds.add(user.id());
+        }
+    }
+
+    private void remove(String id) {
+        User removed = users.remove(id);
+        unverifiedUserIds.remove(id);
+        if (removed != null) {
+            if (removed.email() != null) {
+                userIdsByEmail.remove(removed.email(), id);
+            }
+            if (removed.username() != null) {
+                userIdsByUsername.remove(removed.username(), id);
+            }
+        }
+    }
+
+    private void putVerificationToken(VerificationToken token) {
+        VerificationToken previous = tokens.put(token.token(), token);
+        if (previous != null) {
+            unindexToken(previous);
+            if (!Objects.equals(previous.id(), token.id())) {
+                tokensById.remove(previous.id(), previous.token());
+            }
+        }
+        String replaced = tokensById.put(token.id(), token.token());
+        if (replaced != null && !replaced.equals(token.token())) {
+            VerificationToken dropped = tokens.remove(replaced);
+            if (dropped != null) {
+                unindexToken(dropped);
+            }
+        }
+        if (token.userId() != null) {
+            tokensByUserId.computeIfAbsent(token.userId(), userId -> ConcurrentHashMap.newKeySet()).add(token.token());
+        }
+    }
+
+    private void removeVerificationToken(String token) {
+        VerificationToken removed = tokens.remove(token);
+        if (removed != null) {
+            tokensById.remove(removed.id(), token);
+            unindexToken(removed);
+        }
+    }
+
+    private void unindexToken(VerificationToken token) {
+        if (token.userId() != null) {
+            tokensByUserId.computeIfPresent(token.userId(), (userId, values) -> {
+                values.remove(token.token());
+                return values.isEmpty() ? null : values;
+            });
+        }
+    }
+
+    private void log(LogWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Unable to write the user directory log", e);
+        }
+        changesSinceSnapshot++;
+    }
+
+    private static User withId(User user) {
+        return user.id() != null ? user
+                : new User(new ObjectId().toHexString(), user.username(), user.email(), user.password(), user.enabled(), user.roles());
+    }
+
+    private User compact(User user) {
+        if (user.roles() == null) {
+            return user;
+        }
+        Set<String> shared = roleSets.get(user.roles());
+        if (shared == null) {
+            Set<String> roles = user.roles().stream().map(String::intern).collect(Collectors.toUnmodifiableSet());
+            shared = roleSets.computeIfAbsent(roles, key -> key);
+        }
+        return shared == user.roles() ? user
+                : new User(user.id(), user.username(), user.email(), user.password(), user.enabled(), shared);
+    }
+
+    @FunctionalInterface
+    private interface LogWrite {
+        void run() throws IOException;
+    }
+}
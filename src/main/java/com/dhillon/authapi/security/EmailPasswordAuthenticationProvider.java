@@ -0,0 +1,89 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.repository.UserRepository;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Authenticates an email and password with one projected lookup of the user document. The
+ * authenticated principal is the {@link UserCredentials} it loaded, minus the password hash.
+ * A hash made with an outdated algorithm or cost is replaced once the password has been checked.
+ */
+@Component
+public class EmailPasswordAuthenticationProvider implements AuthenticationProvider {
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthMetrics metrics;
+
+    public EmailPasswordAuthenticationProvider(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                                               AuthMetrics metrics) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        Timer.Sample sample = metrics.start();
+        Optional<UserCredentials> found = userRepository.findCredentialsByEmail(authentication.getName());
+        metrics.stop(sample, "login", "lookup");
+        UserCredentials user = found.orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        if (!user.enabled()) {
+            throw new DisabledException("User is disabled");
+        }
+        Object credentials = authentication.getCredentials();
+        if (credentials == null || user.password() == null) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        sample = metrics.start();
+        boolean matches = passwordEncoder.matches(credentials.toString(), user.password());
+        metrics.stop(sample, "login", "password");
+        if (!matches) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        if (passwordEncoder.upgradeEncoding(user.password())) {
+            rehash(user, credentials.toString());
+        }
+        List<GrantedAuthority> authorities = user.roles() == null ? List.of()
+                : user.roles().stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+        UserCredentials principal = new UserCredentials(user.id(), user.email(), null, user.enabled(), user.roles());
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, authorities);
+    }
+
+    private void rehash(UserCredentials user, String password) {
+        Timer.Sample sample = metrics.start();
+        String hash;
+        try {
+            hash = passwordEncoder.encode(password);
+        } catch (PasswordHashingRejectedException e) {
+            // The login itself has succeeded; try again on a later one, when the pool is less busy
+            metrics.outcome("rehash", "deferred");
+            return;
+        }
+        // A password changed in the meantime is kept
+        Optional<User> updated = userRepository.replacePassword(user.id(), user.password(), hash);
+        metrics.stop(sample, "login", "rehash");
+        metrics.outcome("rehash", updated.isPresent() ? "success" : "conflict");
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
@@ -1,52 +1,78 @@
 package com.dhillon.authapi.security;
 
- import com.dhillon.authapi.service.CustomUserDetailsService;
+ import com.dhillon.authapi.audit.AuthAuditLog;
+ import com.dhillon.authapi.audit.AuthEventType;
+ import com.dhillon.authapi.metrics.AuthMetrics;
+ import com.dhillon.authapi.model.UserCredentials;
+ import io.micrometer.core.instrument.Timer;
  import jakarta.servlet.FilterChain;
  import jakarta.servlet.ServletException;
  import jakarta.servlet.http.HttpServletRequest;
  import jakarta.servlet.http.HttpServletResponse;
  import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+ import org.springframework.security.core.GrantedAuthority;
+ import org.springframework.security.core.authority.SimpleGrantedAuthority;
  import org.springframework.security.core.context.SecurityContextHolder;
- import org.springframework.security.core.userdetails.UserDetails;
  import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
  import org.springframework.stereotype.Component;
  import org.springframework.web.filter.OncePerRequestFilter;
 
  import java.io.IOException;
+ import java.util.List;
+ import java.util.Optional;
 
  @Component
  public class JwtAuthFilter extends OncePerRequestFilter {
-     private final JwtUtil jwtUtil;
-     private final CustomUserDetailsService userDetailsService;
+     private final VerifiedTokenCache tokenCache;
+     private final AuthMetrics metrics;
+     private final TokenRevocationList revocationList;
+     private final AuthAuditLog auditLog;
 
-     public JwtAuthFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
-         this.jwtUtil = jwtUtil;
-         this.userDetailsService = userDetailsService;
+     public JwtAuthFilter(VerifiedTokenCache tokenCache, AuthMetrics metrics, TokenRevocationList revocationList,
+                          AuthAuditLog auditLog) {
+         this.tokenCache = tokenCache;
+         this.metrics = metrics;
+         this.revocationList = revocationList;
+         this.auditLog = auditLog;
      }
 
      @Override
      protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
              throws ServletException, IOException {
          String authHeader = request.getHeader("Authorization");
-         String token = null;
-         String userId = null;
 
-         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-             token = authHeader.substring(7);
-             if (jwtUtil.validateToken(token)) {
-                 userId = jwtUtil.getUserIdFromToken(token);
-             }
-         }
-
-         if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-             UserDetails userDetails = userDetailsService.loadUserById(userId);
-             if (jwtUtil.validateToken(token)) {
+         if (authHeader != null && authHeader.startsWith("Bearer ")
+                 && SecurityContextHolder.getContext().getAuthentication() == null) {
+             Timer.Sample sample = metrics.start();
+             Optional<VerifiedToken> verified = tokenCache.decode(authHeader.substring(7));
+             metrics.stop(sample, "jwt", "verify");
+             if (verified.isEmpty()) {
+                 reject("invalid", null, request);
+             } else if (verified.get().isExpired()) {
+                 reject("expired", verified.get(), request);
+             } else if (revocationList.isRevoked(verified.get())) {
+                 reject("revoked", verified.get(), request);
+             } else if (verified.get().roles() == null) {
+                 reject("invalid", verified.get(), request);
+             } else {
+                 metrics.outcome("jwt", "valid");
+                 // Access tokens are only issued to enabled users, and deleting a user revokes them
+                 UserCredentials principal = new UserCredentials(verified.get().userId(), verified.get().email(), null,
+                         true, verified.get().roles());
+                 List<GrantedAuthority> authorities = principal.roles().stream()
+                         .<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
                  UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                         userDetails, null, userDetails.getAuthorities());
+                         principal, null, authorities);
                  authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                  SecurityContextHolder.getContext().setAuthentication(authToken);
              }
          }
          filterChain.doFilter(request, response);
      }
+
+     private void reject(String outcome, VerifiedToken token, HttpServletRequest request) {
+         metrics.outcome("jwt", outcome);
+         auditLog.record(AuthEventType.TOKEN_REJECTED, outcome, token != null ? token.userId() : null,
+                 token != null ? token.email() : null, request.getRemoteAddr());
+     }
  }
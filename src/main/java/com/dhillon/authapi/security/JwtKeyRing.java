@@ -0,0 +1,303 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.model.SigningKey;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The ES256 keys used to sign and verify access tokens, mirrored in memory from a
+ * {@link SigningKeyStore}. A new key is generated every rotation interval and published in the
+ * JWKS {@code publishAhead} before it signs anything, so verifiers that cache the JWKS know it by
+ * the time its tokens arrive. Retired keys stay published until the last token they signed expires.
+ * Keys are first loaded on lifecycle start, ahead of the web server, or on first use outside a
+ * context; building the ring touches no database, so a CDS training run can create it offline.
+ */
+@Component
+public class JwtKeyRing implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int GCM_IV_BYTES = 12;
+    // Unknown kids trigger a background reload, at most this often, so keys made by other nodes are
+    // found between scheduled refreshes without made-up kids turning into store reads
+    private static final long MIN_RELOAD_INTERVAL_MS = 1000;
+
+    private final SigningKeyStore store;
+    private final SecretKeySpec wrappingKey;
+    private final long rotationIntervalMs;
+    private final long publishAheadMs;
+    private final long accessTokenLifetimeMs;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private volatile State state;
+    private volatile long lastUnknownKidReload;
+    private volatile boolean running;
+
+    public JwtKeyRing(SigningKeyStore store,
+                      @Value("${jwt.secret}") String jwtSecret,
+                      @Value("${jwt.keys.rotation-interval}") long rotationIntervalMs,
+                      @Value("${jwt.keys.publish-ahead}") long publishAheadMs,
+                      @Value("${jwt.expiration}") long accessTokenLifetimeMs) {
+        this.store = store;
+        this.wrappingKey = new SecretKeySpec(sha256(jwtSecret.getBytes(StandardCharsets.UTF_8)), "AES");
+        this.rotationIntervalMs = rotationIntervalMs;
+        this.publishAheadMs = publishAheadMs;
+        this.accessTokenLifetimeMs = accessTokenLifetimeMs;
+    }
+
+    @Override
+    public void start() {
+        state();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Before the web server, which starts in the phase just below DEFAULT_PHASE
+        return 0;
+    }
+
+    public ActiveKey signingKey() {
+        return state().signingKey();
+    }
+
+    /**
+     * Returns the public key for {@code kid}, or null if it is unknown or has expired. An unknown
+     * kid starts a reload in the background rather than on the caller's thread, which may be an
+     * event loop; its token is rejected, and later ones verify once the reload has finished.
+     */
+    public PublicKey verificationKey(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        PublicKey key = state().verificationKeys().get(kid);
+        if (key == null) {
+            reloadInBackground();
+        }
+        return key;
+    }
+
+    public Jwks jwks() {
+        return state().jwks();
+    }
+
+    /**
+     * Reloads the keys from the store, generating a successor when the current key is due for rotation.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval}", initialDelayString = "${jwt.keys.refresh-interval}")
+    public synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        List<SigningKey> keys = store.loadAll().stream()
+                .filter(key -> key.expiresAt().getTime() > now)
+                .sorted(Comparator.comparing(SigningKey::activatesAt))
+                .toList();
+        Optional<SigningKey> signing = keys.stream()
+                .filter(key -> key.activatesAt().getTime() <= now)
+                .filter(key -> key.expiresAt().getTime() - accessTokenLifetimeMs > now)
+                .reduce((first, second) -> second);
+        if (signing.isEmpty()) {
+            SigningKey key = generate(now, now);
+            keys = append(keys, key);
+            signing = Optional.of(key);
+        } else if (keys.get(keys.size() - 1) == signing.get()
+                && signing.get().activatesAt().getTime() + rotationIntervalMs - publishAheadMs <= now) {
+            keys = append(keys, generate(now, now + publishAheadMs));
+        }
+        Map<String, PublicKey> verificationKeys = new LinkedHashMap<>();
+        for (SigningKey key : keys) {
+            verificationKeys.put(key.kid(), publicKey(key.publicKey()));
+        }
+        SigningKey active = signing.get();
+        state = new State(new ActiveKey(active.kid(), privateKey(decrypt(active.encryptedPrivateKey()))),
+                Map.copyOf(verificationKeys), Jwks.of(verificationKeys));
+    }
+
+    private State state() {
+        State current = state;
+        if (current == null) {
+            synchronized (this) {
+                if (state == null) {
+                    refresh();
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+
+    private void reloadInBackground() {
+        long now = System.currentTimeMillis();
+        if (now - lastUnknownKidReload < MIN_RELOAD_INTERVAL_MS || !reloading.compareAndSet(false, true)) {
+            return;
+        }
+        lastUnknownKidReload = now;
+        Thread.ofPlatform().daemon().name("jwt-key-reload").start(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                logger.warn("Reloading signing keys failed: {}", e.getMessage());
+            } finally {
+                reloading.set(false);
+            }
+        });
+    }
+
+    private SigningKey generate(long now, long activatesAt) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            KeyPair pair = generator.generateKeyPair();
+            SigningKey key = new SigningKey(
+                    UUID.randomUUID().toString(),
+                    pair.getPublic().getEncoded(),
+                    encrypt(pair.getPrivate().getEncoded()),
+                    new Date(now),
+                    new Date(activatesAt),
+                    new Date(activatesAt + rotationIntervalMs + publishAheadMs + accessTokenLifetimeMs));
+            store.save(key);
+            logger.info("Generated signing key {} active from {}", key.kid(), key.activatesAt());
+            return key;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate an ES256 key pair", e);
+        }
+    }
+
+    private byte[] encrypt(byte[] plaintext) throws GeneralSecurityException {
+        byte[] iv = new byte[GCM_IV_BYTES];
+        RANDOM.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(128, iv));
+        byte[] ciphertext = cipher.doFinal(plaintext);
+        byte[] result = Arrays.copyOf(iv, iv.length + ciphertext.length);
+        System.arraycopy(ciphertext, 0, result, iv.length, ciphertext.length);
+        return result;
+    }
+
+    private byte[] decrypt(byte[] encrypted) {
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, wrappingKey, new GCMParameterSpec(128, encrypted, 0, GCM_IV_BYTES));
+            return cipher.doFinal(encrypted, GCM_IV_BYTES, encrypted.length - GCM_IV_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to decrypt signing key; was jwt.secret changed?", e);
+        }
+    }
+
+    private static PublicKey publicKey(byte[] encoded) {
+        try {
+            return KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid public key in key store", e);
+        }
+    }
+
+    private static PrivateKey privateKey(byte[] encoded) {
+        try {
+            return KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid private key in key store", e);
+        }
+    }
+
+    private static List<SigningKey> append(List<SigningKey> keys, SigningKey key) {
+        List<SigningKey> result = new ArrayList<>(keys);
+        result.add(key);
+        return result;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record ActiveKey(String kid, PrivateKey privateKey) {}
+
+    /**
+     * The published key set as served at {@code /.well-known/jwks.json}, with a strong ETag of its content.
+     */
+    public record Jwks(String json, String etag) {
+        static Jwks of(Map<String, PublicKey> keys) {
+            List<Map<String, String>> jwks = keys.entrySet().stream()
+                    .map(entry -> jwk(entry.getKey(), (ECPublicKey) entry.getValue()))
+                    .toList();
+            try {
+                String json = MAPPER.writeValueAsString(Map.of("keys", jwks));
+                String etag = "\"" + BASE64_URL.encodeToString(Arrays.copyOf(sha256(json.getBytes(StandardCharsets.UTF_8)), 16)) + "\"";
+                return new Jwks(json, etag);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unable to serialise JWKS", e);
+            }
+        }
+
+        private static Map<String, String> jwk(String kid, ECPublicKey key) {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("kid", kid);
+            jwk.put("x", coordinate(key.getW().getAffineX()));
+            jwk.put("y", coordinate(key.getW().getAffineY()));
+            return jwk;
+        }
+
+        // JWK coordinates are unsigned, big-endian and exactly 32 bytes for P-256
+        private static String coordinate(BigInteger value) {
+            byte[] bytes = value.toByteArray();
+            byte[] padded = new byte[32];
+            int length = Math.min(bytes.length, 32);
+            System.arraycopy(bytes, bytes.length - length, padded, 32 - length, length);
+            return BASE64_URL.encodeToString(padded);
+        }
+    }
+
+    private record State(ActiveKey signingKey, Map<String, PublicKey> verificationKeys, Jwks jwks) {}
+}
@@ -1,48 +1,138 @@
 package com.dhillon.authapi.security;
 
+ import com.fasterxml.jackson.databind.JsonNode;
+ import com.fasterxml.jackson.databind.ObjectMapper;
  import io.jsonwebtoken.*;
  import org.springframework.beans.factory.annotation.Value;
  import org.springframework.stereotype.Component;
+
+ import java.io.IOException;
+ import java.nio.charset.StandardCharsets;
+ import java.security.GeneralSecurityException;
+ import java.security.PublicKey;
+ import java.security.Signature;
+ import java.time.Instant;
+ import java.util.Base64;
+ import java.util.Collection;
  import java.util.Date;
+ import java.util.HashSet;
+ import java.util.List;
+ import java.util.Optional;
+ import java.util.Set;
+ import java.util.UUID;
 
  @Component
  public class JwtUtil {
-     @Value("${jwt.secret}")
-     private String jwtSecret;
+     // JWS ES256 signatures are the raw r || s concatenation (IEEE P1363), not DER
+     private static final String SIGNATURE_ALGORITHM = "SHA256withECDSAinP1363Format";
+     private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+     private static final ObjectMapper MAPPER = new ObjectMapper();
 
-     @Value("${jwt.expiration}")
-     private long jwtExpirationMs;
+     private final JwtKeyRing keyRing;
+     private final long jwtExpirationMs;
 
-     private byte[] getSigningKey() {
-         return jwtSecret.getBytes();
+     public JwtUtil(JwtKeyRing keyRing, @Value("${jwt.expiration}") long jwtExpirationMs) {
+         this.keyRing = keyRing;
+         this.jwtExpirationMs = jwtExpirationMs;
      }
 
-     public String generateToken(String userId, String email) {
+     /**
+      * Issues an access token carrying the user's roles, so requests can be authorized
+      * from the token alone.
+      */
+     public String generateToken(String userId, String email, Collection<String> roles) {
+         JwtKeyRing.ActiveKey key = keyRing.signingKey();
          return Jwts.builder()
+                 .setHeaderParam("kid", key.kid())
+                 .setId(UUID.randomUUID().toString())
                  .setSubject(userId)
                  .claim("email", email)
+                 .claim("roles", roles == null ? List.of() : List.copyOf(roles))
                  .setIssuedAt(new Date())
                  .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                 .signWith(SignatureAlgorithm.HS256, getSigningKey())
+                 .signWith(SignatureAlgorithm.ES256, key.privateKey())
                  .compact();
      }
 
-     public boolean validateToken(String token) {
+     /**
+      * Checks the signature of {@code token} against the key named by its {@code kid} header and
+      * parses its claims once. Expired tokens are still returned so callers can tell them apart from
+      * forged ones; use {@link #verify} to reject them.
+      */
+     public Optional<VerifiedToken> decode(String token) {
+         if (token == null) {
+             return Optional.empty();
+         }
+         int headerEnd = token.indexOf('.');
+         int payloadEnd = token.indexOf('.', headerEnd + 1);
+         if (headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+             return Optional.empty();
+         }
          try {
-             Jwts.parser().setSigningKey(getSigningKey()).parseClaimsJws(token);
-             return true;
-         } catch (JwtException | IllegalArgumentException e) {
-             return false;
+             JsonNode header = MAPPER.readTree(BASE64_URL.decode(token.substring(0, headerEnd)));
+             if (!SignatureAlgorithm.ES256.getValue().equals(header.path("alg").asText())) {
+                 return Optional.empty();
+             }
+             PublicKey key = keyRing.verificationKey(header.path("kid").asText(null));
+             if (key == null || !signatureMatches(key, token.substring(0, payloadEnd),
+                     BASE64_URL.decode(token.substring(payloadEnd + 1)))) {
+                 return Optional.empty();
+             }
+             JsonNode claims = MAPPER.readTree(BASE64_URL.decode(token.substring(headerEnd + 1, payloadEnd)));
+             if (!claims.path("sub").isTextual() || !claims.path("exp").canConvertToLong()) {
+                 return Optional.empty();
+             }
+             return Optional.of(new VerifiedToken(
+                     claims.get("sub").asText(),
+                     claims.path("email").asText(null),
+                     claims.hasNonNull("iat") ? Instant.ofEpochSecond(claims.get("iat").asLong()) : null,
+                     Instant.ofEpochSecond(claims.get("exp").asLong()),
+                     roles(claims.get("roles")),
+                     claims.path("jti").asText(null)
+             ));
+         } catch (IllegalArgumentException | IOException e) {
+             return Optional.empty();
          }
      }
 
+     /**
+      * Returns the token's claims if its signature is valid and it has not expired.
+      */
+     public Optional<VerifiedToken> verify(String token) {
+         return decode(token).filter(verified -> !verified.isExpired());
+     }
+
+     public boolean validateToken(String token) {
+         return verify(token).isPresent();
+     }
+
      public String getUserIdFromToken(String token) {
-         Claims claims = Jwts.parser().setSigningKey(getSigningKey()).parseClaimsJws(token).getBody();
-         return claims.getSubject();
+         return verify(token).map(VerifiedToken::userId)
+                 .orElseThrow(() -> new JwtException("Invalid or expired token"));
      }
 
      public String getEmailFromToken(String token) {
-         Claims claims = Jwts.parser().setSigningKey(getSigningKey()).parseClaimsJws(token).getBody();
-         return claims.get("email", String.class);
+         return verify(token).map(VerifiedToken::email)
+                 .orElseThrow(() -> new JwtException("Invalid or expired token"));
+     }
+
+     private static Set<String> roles(JsonNode roles) {
+         if (roles == null || !roles.isArray()) {
+             return null;
+         }
+         Set<String> result = new HashSet<>();
+         roles.forEach(role -> result.add(role.asText()));
+         return Set.copyOf(result);
+     }
+
+     private static boolean signatureMatches(PublicKey key, String signingInput, byte[] signature) {
+         try {
+             Signature verifier = Signature.getInstance(SIGNATURE_ALGORITHM);
+             verifier.initVerify(key);
+             verifier.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+             return verifier.verify(signature);
+         } catch (GeneralSecurityException e) {
+             return false;
+         }
      }
  }
@@ -0,0 +1,26 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.model.SigningKey;
+import com.dhillon.authapi.repository.SigningKeyRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class MongoSigningKeyStore implements SigningKeyStore {
+    private final SigningKeyRepository repository;
+
+    public MongoSigningKeyStore(SigningKeyRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public List<SigningKey> loadAll() {
+        return repository.findAll();
+    }
+
+    @Override
+    public void save(SigningKey key) {
+        repository.insert(key);
+    }
+}
@@ -0,0 +1,188 @@
+package com.dhillon.authapi.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Chooses how passwords are hashed. New hashes use {@code password-hashing.algorithm} at the
+ * configured cost. A cost set to 0 is instead calibrated at startup so that one hash takes about
+ * {@code password-hashing.target-latency} on this machine; that is meant to be run once and the
+ * logged result pinned, since nodes on different hardware would otherwise pick different costs and
+ * keep rehashing each other's users. Stored hashes keep working whatever produced them: they carry
+ * an {@code {id}} prefix, and hashes from before the prefix are BCrypt.
+ * {@link PasswordEncoder#upgradeEncoding} reports the ones with the other algorithm or a lower cost,
+ * so they can be replaced on the next successful login.
+ */
+@Component
+public class PasswordHashingPolicy {
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingPolicy.class);
+    private static final Pattern BCRYPT_HASH = Pattern.compile("(\\{bcrypt})?\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+    private static final Pattern ARGON2_HASH = Pattern.compile(
+            "\\{argon2}\\$argon2(?:id|i|d)\\$v=19\\$m=(\\d{1,9}),t=\\d{1,4},p=\\d{1,3}\\$[A-Za-z0-9+/]+\\$[A-Za-z0-9+/]+");
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final int CALIBRATION_RUNS = 3;
+
+    private final String algorithm;
+    private final long targetNanos;
+    private final int bcryptStrength;
+    private final int bcryptMinStrength;
+    private final int bcryptMaxStrength;
+    private final int argon2Memory;
+    private final int argon2MaxMemory;
+    private final int argon2Parallelism;
+    private final int argon2Iterations;
+
+    public PasswordHashingPolicy(@Value("${password-hashing.algorithm}") String algorithm,
+                                 @Value("${password-hashing.target-latency}") long targetLatencyMs,
+                                 @Value("${password-hashing.bcrypt.strength}") int bcryptStrength,
+                                 @Value("${password-hashing.bcrypt.min-strength}") int bcryptMinStrength,
+                                 @Value("${password-hashing.bcrypt.max-strength}") int bcryptMaxStrength,
+                                 @Value("${password-hashing.argon2.memory}") int argon2Memory,
+                                 @Value("${password-hashing.argon2.max-memory}") int argon2MaxMemory,
+                                 @Value("${password-hashing.argon2.parallelism}") int argon2Parallelism,
+                                 @Value("${password-hashing.argon2.iterations}") int argon2Iterations) {
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalArgumentException("password-hashing.algorithm must be bcrypt or argon2, not " + algorithm);
+        }
+        if (argon2Memory > argon2MaxMemory) {
+            throw new IllegalArgumentException("password-hashing.argon2.memory is above password-hashing.argon2.max-memory");
+        }
+        this.algorithm = algorithm;
+        this.targetNanos = targetLatencyMs * 1_000_000;
+        this.bcryptStrength = bcryptStrength;
+        this.bcryptMinStrength = bcryptMinStrength;
+        this.bcryptMaxStrength = bcryptMaxStrength;
+        this.argon2Memory = argon2Memory;
+        this.argon2MaxMemory = argon2MaxMemory;
+        this.argon2Parallelism = argon2Parallelism;
+        this.argon2Iterations = argon2Iterations;
+    }
+
+    /**
+     * Builds the encoder, timing a few hashes first if the configured cost is 0.
+     */
+    public PasswordEncoder createEncoder() {
+        PasswordEncoder bcrypt = BCRYPT.equals(algorithm) ? calibratedBCrypt() : new BCryptPasswordEncoder();
+        PasswordEncoder argon2 = new MemoryBoundedEncoder(ARGON2.equals(algorithm) ? calibratedArgon2()
+                : new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, 1, argon2Memory, 1), argon2MaxMemory);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, Map.of(BCRYPT, bcrypt, ARGON2, argon2));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /**
+     * Whether {@code hash} can be stored as is: a BCrypt hash, with or without its prefix, or an
+     * Argon2 hash within {@code password-hashing.argon2.max-memory}.
+     */
+    public boolean isSupportedHash(String hash) {
+        if (BCRYPT_HASH.matcher(hash).matches()) {
+            return true;
+        }
+        Matcher argon2 = ARGON2_HASH.matcher(hash);
+        return argon2.matches() && Long.parseLong(argon2.group(1)) <= argon2MaxMemory;
+    }
+
+    private PasswordEncoder calibratedBCrypt() {
+        int strength = bcryptStrength;
+        if (strength <= 0) {
+            long probe = time(() -> new BCryptPasswordEncoder(bcryptMinStrength).encode("calibration"));
+            strength = bcryptStrength(targetNanos, probe, bcryptMinStrength, bcryptMaxStrength);
+            logger.warn("Calibrated BCrypt strength {} (a hash at strength {} took {} ms, target {} ms); "
+                    + "set password-hashing.bcrypt.strength={} so every node uses it",
+                    strength, bcryptMinStrength, probe / 1_000_000, targetNanos / 1_000_000, strength);
+        }
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    private PasswordEncoder calibratedArgon2() {
+        int iterations = argon2Iterations;
+        if (iterations <= 0) {
+            Argon2PasswordEncoder probeEncoder = new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, argon2Parallelism, argon2Memory, 1);
+            long probe = time(() -> probeEncoder.encode("calibration"));
+            iterations = argon2Iterations(targetNanos, probe);
+            logger.warn("Calibrated Argon2 with {} KiB and {} iterations (one iteration took {} ms, target {} ms); "
+                    + "set password-hashing.argon2.iterations={} so every node uses it",
+                    argon2Memory, iterations, probe / 1_000_000, targetNanos / 1_000_000, iterations);
+        }
+        return new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, argon2Parallelism, argon2Memory, iterations);
+    }
+
+    // Each BCrypt strength step doubles the work
+    static int bcryptStrength(long targetNanos, long probeNanos, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        long estimate = probeNanos;
+        while (strength < maxStrength && estimate * 2 <= targetNanos) {
+            strength++;
+            estimate *= 2;
+        }
+        return strength;
+    }
+
+    // Argon2 time grows linearly with the number of passes over its memory
+    static int argon2Iterations(long targetNanos, long probeNanos) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, targetNanos / Math.max(1, probeNanos)));
+    }
+
+    // The fastest of a few runs after a warm-up; slower runs measure the JIT and other load, not the hash
+    private static long time(Supplier<String> hash) {
+        hash.get();
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_RUNS; i++) {
+            long start = System.nanoTime();
+            hash.get();
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    /**
+     * Argon2 takes its memory cost from the stored hash; refuse hashes that would allocate more
+     * than the configured bound rather than let one of them exhaust the heap.
+     */
+    private static final class MemoryBoundedEncoder implements PasswordEncoder {
+        private static final Pattern MEMORY = Pattern.compile("\\$m=(\\d{1,9}),");
+
+        private final PasswordEncoder delegate;
+        private final int maxMemory;
+
+        private MemoryBoundedEncoder(PasswordEncoder delegate, int maxMemory) {
+            this.delegate = delegate;
+            this.maxMemory = maxMemory;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            Matcher memory = encodedPassword == null ? null : MEMORY.matcher(encodedPassword);
+            if (memory == null || !memory.find() || Long.parseLong(memory.group(1)) > maxMemory) {
+                logger.warn("Refusing an Argon2 hash without a memory cost or with one above {} KiB", maxMemory);
+                return false;
+            }
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
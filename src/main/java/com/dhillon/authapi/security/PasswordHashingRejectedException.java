@@ -0,0 +1,17 @@
+package com.dhillon.authapi.security;
+
+/**
+ * Thrown when the password hashing queue is full and the request should be retried later.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(long retryAfterSeconds) {
+        super("Password hashing capacity exceeded");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
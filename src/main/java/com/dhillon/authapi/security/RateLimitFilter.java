@@ -0,0 +1,212 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Rate limits {@code /login} and {@code /register} per client IP and per target account (the
+ * email, or the username when there is none), so a single client cannot queue unbounded BCrypt
+ * work or verification emails. {@code /introspect} is limited per client IP only, and its body is
+ * passed through unread. Registered ahead of the security chain in {@link SecurityConfig}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Login and register bodies are tiny; larger ones are refused rather than buffered
+    private static final int MAX_BODY_BYTES = 8192;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final AuthMetrics metrics;
+    private final RateLimiter loginPerIp;
+    private final RateLimiter loginPerAccount;
+    private final RateLimiter registerPerIp;
+    private final RateLimiter registerPerAccount;
+    private final RateLimiter introspectPerIp;
+
+    public RateLimitFilter(AuthMetrics metrics,
+                           @Value("${rate-limit.login.per-ip}") String loginPerIp,
+                           @Value("${rate-limit.login.per-account}") String loginPerAccount,
+                           @Value("${rate-limit.register.per-ip}") String registerPerIp,
+                           @Value("${rate-limit.register.per-account}") String registerPerAccount,
+                           @Value("${rate-limit.introspect.per-ip}") String introspectPerIp,
+                           @Value("${rate-limit.max-keys}") long maxKeys) {
+        this.metrics = metrics;
+        this.loginPerIp = new RateLimiter(RateLimitPolicy.parse(loginPerIp), maxKeys);
+        this.loginPerAccount = new RateLimiter(RateLimitPolicy.parse(loginPerAccount), maxKeys);
+        this.registerPerIp = new RateLimiter(RateLimitPolicy.parse(registerPerIp), maxKeys);
+        this.registerPerAccount = new RateLimiter(RateLimitPolicy.parse(registerPerAccount), maxKeys);
+        this.introspectPerIp = new RateLimiter(RateLimitPolicy.parse(introspectPerIp), maxKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || endpoint(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String endpoint = endpoint(request);
+        String client = clientKey(request.getRemoteAddr());
+        if ("introspect".equals(endpoint)) {
+            long wait = introspectPerIp.tryAcquire(client);
+            if (wait > 0) {
+                reject(response, endpoint, "ip", wait);
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean login = "login".equals(endpoint);
+        long wait = (login ? loginPerIp : registerPerIp).tryAcquire(client);
+        if (wait > 0) {
+            reject(response, endpoint, "ip", wait);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        String account = account(body);
+        if (account != null) {
+            wait = (login ? loginPerAccount : registerPerAccount).tryAcquire(account);
+            if (wait > 0) {
+                reject(response, endpoint, "account", wait);
+                return;
+            }
+        }
+        filterChain.doFilter(new BufferedBodyRequest(request, body), response);
+    }
+
+    private void reject(HttpServletResponse response, String endpoint, String limit, long waitNanos) throws IOException {
+        metrics.outcome(endpoint, "rate-limited-" + limit);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, please retry later\"}");
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return switch (path) {
+            case "/api/auth/login" -> "login";
+            case "/api/auth/register" -> "register";
+            case "/api/auth/introspect" -> "introspect";
+            default -> null;
+        };
+    }
+
+    // A single IPv6 client usually holds a whole /64, so it is limited as one key rather than
+    // being able to mint a fresh key (and a fresh budget) per address
+    static String clientKey(String remoteAddr) {
+        if (remoteAddr == null || remoteAddr.indexOf(':') < 0) {
+            return remoteAddr;
+        }
+        try {
+            byte[] address = InetAddress.getByName(remoteAddr).getAddress();
+            if (address.length != 16) {
+                return remoteAddr;
+            }
+            return "ipv6:" + HexFormat.of().formatHex(address, 0, 8);
+        } catch (UnknownHostException e) {
+            return remoteAddr;
+        }
+    }
+
+    private static String account(byte[] body) {
+        try {
+            JsonNode json = MAPPER.readTree(body);
+            if (json == null) {
+                return null;
+            }
+            if (json.path("email").isTextual()) {
+                return "email:" + json.get("email").asText().trim().toLowerCase(Locale.ROOT);
+            }
+            if (json.path("username").isTextual()) {
+                return "username:" + json.get("username").asText();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so it is all available at once
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.dhillon.authapi.security;
+
+import java.time.Duration;
+
+/**
+ * Allows {@code capacity} requests per {@code period}, all of which may arrive as one burst.
+ * Written in properties as {@code <capacity>/<period in ms>}, e.g. {@code 5/60000}.
+ */
+public record RateLimitPolicy(int capacity, Duration period) {
+    public RateLimitPolicy {
+        if (capacity < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit needs a positive capacity and period");
+        }
+    }
+
+    public static RateLimitPolicy parse(String value) {
+        int slash = value.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Expected <capacity>/<period ms> but got '" + value + "'");
+        }
+        return new RateLimitPolicy(Integer.parseInt(value.substring(0, slash).trim()),
+                Duration.ofMillis(Long.parseLong(value.substring(slash + 1).trim())));
+    }
+}
@@ -0,0 +1,62 @@
+package com.dhillon.authapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key, implemented as GCRA: each key holds a single theoretical arrival time that
+ * is advanced with compare-and-set, so concurrent requests never take a lock. Keys live in a
+ * bounded cache and are dropped once idle for a full period, when their bucket would be full anyway.
+ * <p>
+ * A key evicted for size before then starts again with a full bucket, so {@code maxKeys} has to
+ * exceed the number of distinct keys a client can create within one period. Otherwise a client
+ * could spray fresh keys to push its own throttled key out of the cache.
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    public RateLimiter(RateLimitPolicy policy, long maxKeys) {
+        this(policy, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitPolicy policy, long maxKeys, LongSupplier nanoClock) {
+        this.intervalNanos = policy.period().toNanos() / policy.capacity();
+        this.toleranceNanos = intervalNanos * (policy.capacity() - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(policy.period())
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until it would be
+     */
+    public long tryAcquire(String key) {
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long current = arrival.get();
+            long base = Math.max(current, now);
+            long wait = base - toleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
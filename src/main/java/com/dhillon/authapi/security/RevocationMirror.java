@@ -0,0 +1,81 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.model.RevokedToken;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The in-memory half of a revocation list: the revocations seen so far and how far into the
+ * revoked_tokens collection they go. Shared by the servlet {@link TokenRevocationList} and the
+ * reactive application, which differ only in how they read the collection.
+ */
+public class RevocationMirror {
+    // Writes from other nodes may become visible slightly out of revokedAt order and node clocks
+    // drift, so every sync re-reads a window behind the cursor. Re-applying an entry is harmless.
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(10);
+
+    // jti -> expiry of the revoked token
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<String, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+    private volatile Instant cursor = Instant.EPOCH;
+
+    public boolean isRevoked(VerifiedToken token) {
+        if (token.tokenId() != null && revokedTokens.containsKey(token.tokenId())) {
+            return true;
+        }
+        if (revokedUsers.isEmpty()) {
+            return false;
+        }
+        UserRevocation revocation = revokedUsers.get(token.userId());
+        return revocation != null && (token.issuedAt() == null || !token.issuedAt().isAfter(revocation.revokedAt()));
+    }
+
+    /**
+     * The {@code revokedAt} to read the collection from on the next sync.
+     */
+    public Date syncFrom() {
+        return Date.from(cursor.minus(SYNC_OVERLAP));
+    }
+
+    /**
+     * Applies a revocation read from the collection and moves the cursor past it.
+     */
+    public void synced(RevokedToken revoked) {
+        apply(revoked);
+        Instant revokedAt = revoked.revokedAt().toInstant();
+        if (revokedAt.isAfter(cursor)) {
+            cursor = revokedAt;
+        }
+    }
+
+    public void apply(RevokedToken revoked) {
+        if (revoked.tokenId() != null) {
+            revokedTokens.put(revoked.tokenId(), revoked.expiresAt().toInstant());
+            return;
+        }
+        // iat has second precision, so compare against the revocation time truncated the same way
+        UserRevocation revocation = new UserRevocation(
+                revoked.revokedAt().toInstant().truncatedTo(ChronoUnit.SECONDS), revoked.expiresAt().toInstant());
+        revokedUsers.merge(revoked.userId(), revocation,
+                (a, b) -> a.revokedAt().isAfter(b.revokedAt()) ? a : b);
+    }
+
+    /**
+     * Drops revocations whose tokens have all expired by {@code now}.
+     */
+    public void expire(Instant now) {
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        revokedUsers.values().removeIf(revocation -> !revocation.expiresAt().isAfter(now));
+    }
+
+    public int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+
+    private record UserRevocation(Instant revokedAt, Instant expiresAt) {}
+}
@@ -2,14 +2,20 @@ package com.dhillon.authapi.security;
 
 import com.dhillon.authapi.repository.UserRepository;
 import com.dhillon.authapi.service.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 public class SecurityConfig {
@@ -21,23 +27,51 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingPolicy passwordHashingPolicy, PasswordHashingExecutor passwordHashingExecutor) {
+        return new BoundedPasswordEncoder(passwordHashingPolicy.createEncoder(), passwordHashingExecutor);
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthFilter jwtAuthFilter,
+                                                   @Value("${management.server.port}") int managementPort) throws Exception {
+        // Metrics are only open to requests on the management port, which is not exposed with the API
+        RequestMatcher metrics = new AndRequestMatcher(AntPathRequestMatcher.antMatcher("/actuator/prometheus"),
+                request -> request.getLocalPort() == managementPort);
         http.csrf().disable()
                 .authorizeHttpRequests((authz) -> authz
+                        .requestMatchers("/api/auth/introspect").hasRole("INTROSPECT")
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers(metrics).permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
-                );
+                )
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
+    // JwtAuthFilter runs inside the security chain above; keep Boot from also registering it
+    // as a plain servlet filter, where it would run after authorization had already happened.
+    @Bean
+    public FilterRegistrationBean<JwtAuthFilter> jwtAuthFilterRegistration(JwtAuthFilter jwtAuthFilter) {
+        FilterRegistrationBean<JwtAuthFilter> registration = new FilterRegistrationBean<>(jwtAuthFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    // Runs before the security chain so throttled requests are turned away as cheaply as possible
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.addUrlPatterns("/api/auth/login", "/api/auth/register", "/api/auth/introspect");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
      @Bean
-     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-         return config.getAuthenticationManager();
+     public AuthenticationManager authenticationManager(EmailPasswordAuthenticationProvider emailPasswordAuthenticationProvider) {
+         return new ProviderManager(emailPasswordAuthenticationProvider);
      }
 
     // Removed redundant UserDetailsService bean to avoid duplicate beans and circular dependency issues
@@ -0,0 +1,34 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.model.SigningKey;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Where {@link JwtKeyRing} keeps its keys. Every node reads the same store, so keys generated by
+ * one node are picked up by the others on their next refresh.
+ */
+public interface SigningKeyStore {
+    List<SigningKey> loadAll();
+
+    void save(SigningKey key);
+
+    /**
+     * A store local to this process, for tests and benchmarks.
+     */
+    static SigningKeyStore inMemory() {
+        List<SigningKey> keys = new CopyOnWriteArrayList<>();
+        return new SigningKeyStore() {
+            @Override
+            public List<SigningKey> loadAll() {
+                return List.copyOf(keys);
+            }
+
+            @Override
+            public void save(SigningKey key) {
+                keys.add(key);
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks batches of access tokens for gateways. Tokens are verified in chunks on a dedicated
+ * fork-join pool, through the {@link VerifiedTokenCache} so tokens seen before cost a hash lookup,
+ * and each chunk's results are written while the next chunk is verified.
+ */
+@Component
+public class TokenIntrospector {
+    private static final JsonFactory JSON = JsonFactory.builder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+
+    private final VerifiedTokenCache tokenCache;
+    private final TokenRevocationList revocationList;
+    private final AuthMetrics metrics;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public TokenIntrospector(VerifiedTokenCache tokenCache, TokenRevocationList revocationList, AuthMetrics metrics,
+                             @Value("${introspection.threads}") int threads,
+                             @Value("${introspection.chunk-size}") int chunkSize) {
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
+        this.metrics = metrics;
+        this.pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public enum Status {
+        ACTIVE, EXPIRED, REVOKED, INVALID;
+
+        public String value() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * The outcome for one token; {@code token} is null when its signature could not be verified, or
+     * when it carries no roles and so would not authenticate a request either.
+     */
+    public record Result(Status status, VerifiedToken token) {}
+
+    public Result introspect(String token) {
+        VerifiedToken verified = tokenCache.decode(token).orElse(null);
+        if (verified == null || verified.roles() == null) {
+            return new Result(Status.INVALID, null);
+        }
+        if (verified.isExpired()) {
+            return new Result(Status.EXPIRED, verified);
+        }
+        return new Result(revocationList.isRevoked(verified) ? Status.REVOKED : Status.ACTIVE, verified);
+    }
+
+    /**
+     * Writes a JSON array with one entry per token, in the order given, flushing after each chunk.
+     * Entries are {@code {"active":..., "status":...}}, plus {@code sub}, {@code email}, {@code roles},
+     * {@code iat} and {@code exp} for tokens with a valid signature.
+     */
+    public void introspect(List<String> tokens, OutputStream out) throws IOException {
+        JsonGenerator json = JSON.createGenerator(out);
+        json.writeStartArray();
+        CompletableFuture<List<Result>> next = verify(tokens, 0);
+        for (int from = 0; from < tokens.size(); from += chunkSize) {
+            List<Result> results = next.join();
+            next = verify(tokens, from + chunkSize);
+            for (Result result : results) {
+                write(json, result);
+            }
+            json.flush();
+        }
+        json.writeEndArray();
+        json.close();
+    }
+
+    private CompletableFuture<List<Result>> verify(List<String> tokens, int from) {
+        if (from >= tokens.size()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<String> chunk = tokens.subList(from, Math.min(tokens.size(), from + chunkSize));
+        return CompletableFuture.supplyAsync(() -> {
+            Timer.Sample sample = metrics.start();
+            List<Result> results = chunk.parallelStream().map(this::introspect).toList();
+            metrics.stop(sample, "introspect", "verify");
+            return results;
+        }, pool);
+    }
+
+    private void write(JsonGenerator json, Result result) throws IOException {
+        metrics.outcome("introspect", result.status().value());
+        json.writeStartObject();
+        json.writeBooleanField("active", result.status() == Status.ACTIVE);
+        json.writeStringField("status", result.status().value());
+        VerifiedToken token = result.token();
+        if (token != null) {
+            json.writeStringField("sub", token.userId());
+            if (token.email() != null) {
+                json.writeStringField("email", token.email());
+            }
+            if (token.roles() != null) {
+                json.writeArrayFieldStart("roles");
+                for (String role : token.roles()) {
+                    json.writeString(role);
+                }
+                json.writeEndArray();
+            }
+            if (token.issuedAt() != null) {
+                json.writeNumberField("iat", token.issuedAt().getEpochSecond());
+            }
+            json.writeNumberField("exp", token.expiresAt().getEpochSecond());
+        }
+        json.writeEndObject();
+    }
+}
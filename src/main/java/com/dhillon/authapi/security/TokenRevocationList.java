@@ -0,0 +1,72 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.model.RevokedToken;
+import com.dhillon.authapi.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * In-memory mirror of the revoked_tokens collection, checked by {@link JwtAuthFilter} on every
+ * request. Each node applies its own revocations immediately and pulls everyone else's from Mongo
+ * by {@code revokedAt}; entries are dropped once the tokens they cover have expired. The entries
+ * live in a {@link RevocationMirror}, which the reactive application reads the same way.
+ */
+@Component
+public class TokenRevocationList {
+    private final RevokedTokenRepository repository;
+    private final long accessTokenLifetimeMs;
+    private final RevocationMirror mirror = new RevocationMirror();
+
+    public TokenRevocationList(RevokedTokenRepository repository, MeterRegistry meterRegistry,
+                               @Value("${jwt.expiration}") long accessTokenLifetimeMs) {
+        this.repository = repository;
+        this.accessTokenLifetimeMs = accessTokenLifetimeMs;
+        Gauge.builder("auth.jwt.revoked", mirror, RevocationMirror::size)
+                .description("Revocations held in memory")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return mirror.isRevoked(token);
+    }
+
+    /**
+     * Revokes a single access token. Tokens issued without a {@code jti} cannot be told apart, so
+     * revoking one revokes every token of its user.
+     */
+    public void revoke(VerifiedToken token) {
+        if (token.tokenId() == null) {
+            revokeUser(token.userId());
+            return;
+        }
+        save(new RevokedToken(null, token.tokenId(), token.userId(), new Date(), Date.from(token.expiresAt())));
+    }
+
+    /**
+     * Revokes every access token issued to {@code userId} so far.
+     */
+    public void revokeUser(String userId) {
+        Date now = new Date();
+        save(new RevokedToken(null, null, userId, now, new Date(now.getTime() + accessTokenLifetimeMs)));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval}")
+    public void sync() {
+        Instant now = Instant.now();
+        for (RevokedToken revoked : repository.findByRevokedAtGreaterThanEqualAndExpiresAtAfterOrderByRevokedAtAsc(mirror.syncFrom(), Date.from(now))) {
+            mirror.synced(revoked);
+        }
+        mirror.expire(now);
+    }
+
+    private void save(RevokedToken revoked) {
+        repository.insert(revoked);
+        mirror.apply(revoked);
+    }
+}
@@ -0,0 +1,22 @@
+package com.dhillon.authapi.security;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Claims of a JWT whose signature has been checked by {@link JwtUtil}. {@code roles} is null when
+ * the token carries no roles claim; such tokens identify a user but do not authenticate requests.
+ * {@code tokenId} is the {@code jti} claim used for revocation.
+ */
+public record VerifiedToken(
+    String userId,
+    String email,
+    Instant issuedAt,
+    Instant expiresAt,
+    Set<String> roles,
+    String tokenId
+) {
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,123 @@
+package com.dhillon.authapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Remembers tokens that {@link JwtUtil} has already verified, keyed by a SHA-256 digest of the
+ * token so raw bearer tokens are never held in memory. Entries expire at the token's {@code exp}.
+ */
+@Component
+public class VerifiedTokenCache {
+    private final JwtUtil jwtUtil;
+    private final Cache<TokenDigest, VerifiedToken> cache;
+    private final Queue<MessageDigest> digests = new ConcurrentLinkedQueue<>();
+
+    public VerifiedTokenCache(JwtUtil jwtUtil, @Value("${jwt.cache.max-entries}") long maxEntries) {
+        this(jwtUtil, maxEntries, Ticker.systemTicker());
+    }
+
+    VerifiedTokenCache(JwtUtil jwtUtil, long maxEntries, Ticker ticker) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new TokenExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Same contract as {@link JwtUtil#decode}, answered from the cache when the token was seen before.
+     */
+    public Optional<VerifiedToken> decode(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        TokenDigest key = digest(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<VerifiedToken> verified = jwtUtil.decode(token);
+        verified.filter(v -> !v.isExpired()).ifPresent(v -> cache.put(key, v));
+        return verified;
+    }
+
+    public Optional<VerifiedToken> verify(String token) {
+        return decode(token).filter(verified -> !verified.isExpired());
+    }
+
+    /**
+     * Hit, miss and eviction counts since startup.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * The underlying cache, for binding its statistics to a meter registry.
+     */
+    public Cache<?, ?> nativeCache() {
+        return cache;
+    }
+
+    private TokenDigest digest(String token) {
+        MessageDigest digest = digests.poll();
+        if (digest == null) {
+            digest = newDigest();
+        }
+        try {
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        } finally {
+            digests.offer(digest);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record TokenDigest(long h0, long h1, long h2, long h3) {}
+
+    private static final class TokenExpiry implements Expiry<TokenDigest, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(TokenDigest key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
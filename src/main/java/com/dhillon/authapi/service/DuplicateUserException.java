@@ -0,0 +1,10 @@
+package com.dhillon.authapi.service;
+
+/**
+ * Thrown when a new user clashes with the unique email or username index.
+ */
+public class DuplicateUserException extends RuntimeException {
+    public DuplicateUserException(String message) {
+        super(message);
+    }
+}
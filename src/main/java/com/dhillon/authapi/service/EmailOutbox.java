@@ -0,0 +1,95 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.model.PendingEmail;
+import com.dhillon.authapi.model.PendingEmail.Status;
+import com.dhillon.authapi.repository.PendingEmailRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mongo-backed queue of emails waiting to be sent by {@link EmailOutboxDispatcher}.
+ */
+@Service
+public class EmailOutbox {
+    private static final long MAX_BACKOFF_MS = 3600000;
+
+    private final PendingEmailRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final long leaseMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    public EmailOutbox(PendingEmailRepository repository, MongoTemplate mongoTemplate,
+                       @Value("${email.outbox.lease}") long leaseMs,
+                       @Value("${email.outbox.max-attempts}") int maxAttempts,
+                       @Value("${email.outbox.retry-backoff}") long retryBackoffMs) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.leaseMs = leaseMs;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    public PendingEmail enqueue(String to, String subject, String text) {
+        Date now = new Date();
+        return repository.insert(new PendingEmail(null, to, subject, text, Status.PENDING, 0, now, null, null, now));
+    }
+
+    /**
+     * Reserves up to {@code batchSize} due emails for this node. Emails claimed by a node that
+     * died before finishing become due again once their lease runs out.
+     */
+    public List<PendingEmail> claimBatch(int batchSize) {
+        Date now = new Date();
+        Criteria due = Criteria.where("status").in(Status.PENDING, Status.SENDING).and("nextAttemptAt").lte(now);
+        Query candidates = Query.query(due).with(Sort.by("nextAttemptAt")).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, PendingEmail.class).stream().map(PendingEmail::id).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String claimId = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(ids).andOperator(due)),
+                new Update().set("status", Status.SENDING)
+                        .set("claimId", claimId)
+                        .set("nextAttemptAt", new Date(now.getTime() + leaseMs)),
+                PendingEmail.class);
+        return repository.findByClaimId(claimId);
+    }
+
+    public void markSent(Collection<PendingEmail> emails) {
+        repository.deleteAllById(emails.stream().map(PendingEmail::id).toList());
+    }
+
+    public void markFailed(PendingEmail email, String error) {
+        int attempts = email.attempts() + 1;
+        long backoff = Math.min(retryBackoffMs << Math.min(attempts - 1, 20), MAX_BACKOFF_MS);
+        repository.save(new PendingEmail(
+                email.id(),
+                email.to(),
+                email.subject(),
+                email.text(),
+                attempts >= maxAttempts ? Status.FAILED : Status.PENDING,
+                attempts,
+                new Date(System.currentTimeMillis() + backoff),
+                null,
+                error,
+                email.createdAt()
+        ));
+    }
+
+    public long queueDepth() {
+        return repository.countByStatusIn(List.of(Status.PENDING, Status.SENDING));
+    }
+}
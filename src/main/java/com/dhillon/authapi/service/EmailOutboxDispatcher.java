@@ -0,0 +1,131 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.model.PendingEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Drains the {@link EmailOutbox}. Each claimed batch is split into chunks that are sent over a
+ * single SMTP connection, with at most {@code email.outbox.concurrency} connections open at once.
+ * Sends run on virtual threads when {@code spring.threads.virtual.enabled} is set.
+ */
+@Component
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutbox outbox;
+    private final JavaMailSender mailSender;
+    private final ExecutorService senders;
+    private final Semaphore connections;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    public EmailOutboxDispatcher(EmailOutbox outbox, JavaMailSender mailSender, MeterRegistry meterRegistry,
+                                 @Value("${email.outbox.batch-size}") int batchSize,
+                                 @Value("${email.outbox.concurrency}") int concurrency,
+                                 @Value("${email.outbox.messages-per-connection}") int messagesPerConnection,
+                                 @Value("${spring.threads.virtual.enabled}") boolean virtualThreads) {
+        this.outbox = outbox;
+        this.mailSender = mailSender;
+        this.senders = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("email-outbox-", 0).factory())
+                : Executors.newFixedThreadPool(concurrency, new CustomizableThreadFactory("email-outbox-"));
+        this.connections = new Semaphore(concurrency);
+        this.batchSize = batchSize;
+        this.messagesPerConnection = messagesPerConnection;
+        this.sendTimer = Timer.builder("email.outbox.send")
+                .description("Time to deliver one chunk of emails over a single SMTP connection")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("email.outbox.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("email.outbox.failed").register(meterRegistry);
+        Gauge.builder("email.outbox.depth", outbox, EmailOutbox::queueDepth)
+                .description("Emails waiting to be sent")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval}")
+    public void dispatch() {
+        List<PendingEmail> batch = outbox.claimBatch(batchSize);
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += messagesPerConnection) {
+            List<PendingEmail> chunk = batch.subList(from, Math.min(batch.size(), from + messagesPerConnection));
+            chunks.add(CompletableFuture.runAsync(() -> send(chunk), senders));
+        }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void send(List<PendingEmail> chunk) {
+        SimpleMailMessage[] messages = chunk.stream().map(EmailOutboxDispatcher::toMessage).toArray(SimpleMailMessage[]::new);
+        connections.acquireUninterruptibly();
+        Timer.Sample sample = Timer.start();
+        try {
+            mailSender.send(messages);
+            outbox.markSent(chunk);
+            sentCounter.increment(chunk.size());
+        } catch (MailSendException ex) {
+            // Messages missing from the failure map were accepted by the server.
+            Map<Object, Exception> failures = ex.getFailedMessages();
+            List<PendingEmail> sent = new ArrayList<>();
+            for (int i = 0; i < messages.length; i++) {
+                Exception failure = failures.get(messages[i]);
+                if (failure == null && !failures.isEmpty()) {
+                    sent.add(chunk.get(i));
+                } else {
+                    fail(chunk.get(i), failure != null ? failure : ex);
+                }
+            }
+            if (!sent.isEmpty()) {
+                outbox.markSent(sent);
+                sentCounter.increment(sent.size());
+            }
+        } catch (MailException ex) {
+            chunk.forEach(email -> fail(email, ex));
+        } finally {
+            sample.stop(sendTimer);
+            connections.release();
+        }
+    }
+
+    private void fail(PendingEmail email, Exception ex) {
+        logger.warn("Sending email {} failed on attempt {}: {}", email.id(), email.attempts() + 1, ex.getMessage());
+        outbox.markFailed(email, ex.getMessage());
+        failedCounter.increment();
+    }
+
+    private static SimpleMailMessage toMessage(PendingEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(email.to());
+        message.setSubject(email.subject());
+        message.setText(email.text());
+        return message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+    }
+}
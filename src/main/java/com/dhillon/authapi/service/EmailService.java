@@ -1,28 +1,25 @@
 package com.dhillon.authapi.service;
 
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EmailService {
-    private final JavaMailSender mailSender;
+    private final EmailOutbox outbox;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(EmailOutbox outbox) {
+        this.outbox = outbox;
     }
 
+    /**
+     * Queues the verification email; {@link EmailOutboxDispatcher} delivers it in the background.
+     */
     public void sendVerificationEmail(String to, String token) {
 
         String subject = "Verify your email";
         String verificationUrl = "http://localhost:8082/api/auth/verify?token=" + token;
         String text = "Click the link to verify your email: " + verificationUrl;
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
+        outbox.enqueue(to, subject, text);
     }
 
 
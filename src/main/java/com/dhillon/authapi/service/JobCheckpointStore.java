@@ -0,0 +1,69 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.model.JobCheckpoint;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Mongo-backed {@link JobCheckpoint}s, so a background job resumes where it stopped after a
+ * restart and runs on one node at a time.
+ */
+@Service
+public class JobCheckpointStore {
+    private final MongoTemplate mongoTemplate;
+
+    public JobCheckpointStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Takes the lease on {@code job} for {@code owner}, creating the checkpoint on first use.
+     *
+     * @return the checkpoint, or empty if another owner holds an unexpired lease
+     */
+    public Optional<JobCheckpoint> claim(String job, String owner, long leaseMs) {
+        Date now = new Date();
+        Query query = Query.query(Criteria.where("_id").is(job).orOperator(
+                Criteria.where("owner").is(null),
+                Criteria.where("owner").is(owner),
+                Criteria.where("leaseUntil").lt(now)));
+        Update update = new Update().set("owner", owner).set("leaseUntil", new Date(now.getTime() + leaseMs));
+        try {
+            return Optional.of(mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobCheckpoint.class));
+        } catch (DuplicateKeyException ex) {
+            // The checkpoint exists but is leased, so the upsert tried to insert a second one
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records {@code position} and extends the lease.
+     *
+     * @return false if {@code owner} no longer holds the lease
+     */
+    public boolean advance(String job, String owner, String position, long leaseMs) {
+        Date now = new Date();
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(job).and("owner").is(owner)),
+                new Update().set("position", position)
+                        .set("leaseUntil", new Date(now.getTime() + leaseMs))
+                        .set("updatedAt", now),
+                JobCheckpoint.class).getMatchedCount() == 1;
+    }
+
+    public void release(String job, String owner) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(job).and("owner").is(owner)),
+                new Update().unset("owner").unset("leaseUntil"),
+                JobCheckpoint.class);
+    }
+}
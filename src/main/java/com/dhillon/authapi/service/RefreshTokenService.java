@@ -0,0 +1,131 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.model.RefreshToken;
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.repository.RefreshTokenRepository;
+import com.dhillon.authapi.repository.UserRepository;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. Only a hash of each token is stored, and each token can be
+ * exchanged once: the exchange marks it used and issues its successor in the same family.
+ */
+@Service
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository repository;
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final AuthMetrics metrics;
+    private final long expirationMs;
+
+    public RefreshTokenService(RefreshTokenRepository repository, UserRepository userRepository, MongoTemplate mongoTemplate,
+                               AuthMetrics metrics, @Value("${refresh-token.expiration}") long expirationMs) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.metrics = metrics;
+        this.expirationMs = expirationMs;
+    }
+
+    /**
+     * Starts a new token family for a fresh login.
+     */
+    public String issue(String userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges {@code refreshToken} for its successor. Returns empty if the token is unknown,
+     * expired or already used, or if the user no longer exists or is disabled. Reuse of a spent
+     * token revokes its whole family, logging out whoever holds the current one.
+     */
+    public Optional<Rotation> rotate(String refreshToken) {
+        if (refreshToken == null) {
+            return Optional.empty();
+        }
+        String tokenHash = hash(refreshToken);
+        Query unused = Query.query(Criteria.where("tokenHash").is(tokenHash)
+                .and("used").is(false)
+                .and("expiresAt").gt(new Date()));
+        Timer.Sample sample = metrics.start();
+        RefreshToken current = mongoTemplate.findAndModify(unused, new Update().set("used", true), RefreshToken.class);
+        metrics.stop(sample, "refresh", "consume");
+        if (current == null) {
+            repository.findByTokenHash(tokenHash).filter(RefreshToken::used).ifPresent(reused -> {
+                metrics.outcome("refresh", "reuse");
+                revokeFamily(reused.familyId());
+            });
+            return Optional.empty();
+        }
+        sample = metrics.start();
+        Optional<UserCredentials> user = userRepository.findCredentialsById(current.userId()).filter(UserCredentials::enabled);
+        metrics.stop(sample, "refresh", "user-lookup");
+        if (user.isEmpty()) {
+            revokeFamily(current.familyId());
+            return Optional.empty();
+        }
+        return Optional.of(new Rotation(user.get(), issue(current.userId(), current.familyId())));
+    }
+
+    /**
+     * Revokes the family of {@code refreshToken} if it belongs to {@code userId}.
+     */
+    public void revoke(String refreshToken, String userId) {
+        if (refreshToken == null) {
+            return;
+        }
+        repository.findByTokenHash(hash(refreshToken))
+                .filter(token -> token.userId().equals(userId))
+                .ifPresent(token -> revokeFamily(token.familyId()));
+    }
+
+    public void revokeAll(String userId) {
+        repository.deleteByUserId(userId);
+    }
+
+    public void revokeFamily(String familyId) {
+        repository.deleteByFamilyId(familyId);
+    }
+
+    private String issue(String userId, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = BASE64_URL.encodeToString(bytes);
+        Date now = new Date();
+        Timer.Sample sample = metrics.start();
+        repository.insert(new RefreshToken(null, hash(token), familyId, userId, false, now,
+                new Date(now.getTime() + expirationMs)));
+        metrics.stop(sample, "refresh", "issue");
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return BASE64_URL.encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(UserCredentials user, String refreshToken) {}
+}
@@ -0,0 +1,177 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.model.JobCheckpoint;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.repository.UserRepository;
+import com.dhillon.authapi.repository.VerificationTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes users that never verified their email within {@code user-purge.max-age}, together with
+ * their verification tokens. Users are visited in id order, which for ObjectIds is creation order,
+ * so the pass keeps a checkpoint of the last id it reached and a restart picks up from there. Each
+ * pass runs on its own thread so pacing deletes to {@code user-purge.max-deletes-per-second} does
+ * not hold up the other scheduled jobs.
+ */
+@Component
+public class UnverifiedUserPurger {
+    private static final Logger logger = LoggerFactory.getLogger(UnverifiedUserPurger.class);
+    static final String JOB = "unverified-user-purge";
+
+    private final UserRepository userRepository;
+    private final VerificationTokenRepository tokenRepository;
+    private final JobCheckpointStore checkpoints;
+    private final ExecutorService worker;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final String owner = UUID.randomUUID().toString();
+    private final long maxAgeMs;
+    private final int batchSize;
+    private final int maxDeletesPerSecond;
+    private final long leaseMs;
+    private final Timer batchTimer;
+    private final Counter usersCounter;
+    private final Counter tokensCounter;
+
+    public UnverifiedUserPurger(UserRepository userRepository, VerificationTokenRepository tokenRepository,
+                                JobCheckpointStore checkpoints,
+                                MeterRegistry meterRegistry,
+                                @Value("${user-purge.max-age}") long maxAgeMs,
+                                @Value("${user-purge.batch-size}") int batchSize,
+                                @Value("${user-purge.max-deletes-per-second}") int maxDeletesPerSecond,
+                                @Value("${user-purge.lease}") long leaseMs,
+                                @Value("${spring.threads.virtual.enabled}") boolean virtualThreads) {
+        this.userRepository = userRepository;
+        this.tokenRepository = tokenRepository;
+        this.checkpoints = checkpoints;
+        this.worker = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("user-purge-", 0).factory())
+                : Executors.newSingleThreadExecutor(new CustomizableThreadFactory("user-purge-"));
+        this.maxAgeMs = maxAgeMs;
+        this.batchSize = batchSize;
+        this.maxDeletesPerSecond = maxDeletesPerSecond;
+        this.leaseMs = leaseMs;
+        this.batchTimer = Timer.builder("user.purge.batch")
+                .description("Time to delete one batch of unverified users and their tokens")
+                .register(meterRegistry);
+        this.usersCounter = Counter.builder("user.purge.users")
+                .description("Unverified users deleted for being older than user-purge.max-age")
+                .register(meterRegistry);
+        this.tokensCounter = Counter.builder("user.purge.tokens")
+                .description("Verification tokens deleted along with their users")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a pass in the background unless the previous one is still running.
+     */
+    @Scheduled(fixedDelayString = "${user-purge.interval}", initialDelayString = "${user-purge.interval}")
+    public void schedule() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        worker.execute(() -> {
+            try {
+                purge();
+            } catch (RuntimeException ex) {
+                logger.warn("Purging unverified users failed: {}", ex.getMessage());
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Deletes, batch by batch, every unverified user created before the cutoff and after the
+     * checkpoint. Does nothing if another node holds the checkpoint.
+     *
+     * @return the number of users deleted
+     */
+    public long purge() {
+        Optional<JobCheckpoint> checkpoint = checkpoints.claim(JOB, owner, leaseMs);
+        if (checkpoint.isEmpty()) {
+            return 0;
+        }
+        String position = checkpoint.get().position();
+        // The smallest ObjectId of the cutoff second; every id below it was created before the cutoff
+        String cutoff = String.format("%08x%016x", (System.currentTimeMillis() - maxAgeMs) / 1000, 0);
+        if (position != null && position.compareTo(cutoff) >= 0) {
+            checkpoints.release(JOB, owner);
+            return 0;
+        }
+        long users = 0;
+        long writes = 0;
+        long start = System.nanoTime();
+        try {
+            List<User> batch;
+            do {
+                batch = userRepository.findUnverifiedBetween(position, cutoff, batchSize);
+                if (!batch.isEmpty()) {
+                    Deleted deleted = delete(batch);
+                    users += deleted.users();
+                    writes += deleted.users() + deleted.tokens();
+                    position = batch.get(batch.size() - 1).id();
+                }
+                // With nothing left before the cutoff, skip past the verified users in between too
+                String reached = batch.size() < batchSize ? cutoff : position;
+                if (!checkpoints.advance(JOB, owner, reached, leaseMs)) {
+                    logger.warn("Lost the {} checkpoint to another node; stopping at {}", JOB, position);
+                    return users;
+                }
+                pace(start, writes);
+            } while (batch.size() == batchSize);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        checkpoints.release(JOB, owner);
+        if (users > 0) {
+            logger.info("Purged {} unverified users created before {}", users, cutoff);
+        }
+        return users;
+    }
+
+    private Deleted delete(List<User> batch) {
+        List<String> ids = batch.stream().map(User::id).toList();
+        Timer.Sample sample = Timer.start();
+        long users = userRepository.deleteByIdInAndEnabledIsFalse(ids);
+        long tokens = tokenRepository.deleteByUserIdIn(ids);
+        sample.stop(batchTimer);
+        usersCounter.increment(users);
+        tokensCounter.increment(tokens);
+        return new Deleted(users, tokens);
+    }
+
+    private record Deleted(long users, long tokens) {}
+
+    /**
+     * Sleeps until {@code writes} deletes fit in the budget for the time since {@code start}.
+     */
+    private void pace(long start, long writes) throws InterruptedException {
+        long due = start + TimeUnit.SECONDS.toNanos(writes) / maxDeletesPerSecond;
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+}
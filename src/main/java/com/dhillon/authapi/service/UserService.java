@@ -1,11 +1,19 @@
 package com.dhillon.authapi.service;
 
+import com.dhillon.authapi.metrics.AuthMetrics;
 import com.dhillon.authapi.model.User;
 import com.dhillon.authapi.model.VerificationToken;
+import com.dhillon.authapi.repository.DuplicateKeys;
 import com.dhillon.authapi.repository.UserRepository;
 import com.dhillon.authapi.repository.VerificationTokenRepository;
+import com.dhillon.authapi.security.TokenRevocationList;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -13,23 +21,48 @@ public class UserService {
     private final UserRepository userRepository;
     private final VerificationTokenRepository tokenRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthMetrics metrics;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
 
-    public UserService(UserRepository userRepository, VerificationTokenRepository tokenRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, VerificationTokenRepository tokenRepository, PasswordEncoder passwordEncoder,
+                       AuthMetrics metrics,
+                       RefreshTokenService refreshTokenService, TokenRevocationList revocationList) {
         this.userRepository = userRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
         this.tokenRepository = tokenRepository;
         this.passwordEncoder = passwordEncoder;
+        this.metrics = metrics;
     }
 
+    /**
+     * Inserts a new, disabled user with {@link User#DEFAULT_ROLES} in a single write. The unique
+     * indexes on email and username reject duplicates, which surface as {@link DuplicateUserException}.
+     */
     public User registerUser(User user) {
+        Timer.Sample sample = metrics.start();
+        String passwordHash = passwordEncoder.encode(user.password());
+        metrics.stop(sample, "register", "hash");
         User updatedUser = new User(
-            user.id(),
+            new ObjectId().toHexString(),
             user.username(),
             user.email(),
-            passwordEncoder.encode(user.password()),
+            passwordHash,
             false,
-            user.roles()
+            User.DEFAULT_ROLES
         );
-        return userRepository.save(updatedUser);
+        User savedUser;
+        sample = metrics.start();
+        try {
+            savedUser = userRepository.insert(updatedUser);
+        } catch (DuplicateKeyException ex) {
+            metrics.stop(sample, "register", "insert");
+            throw new DuplicateUserException(DuplicateKeys.index(ex).filter("username"::equals).isPresent()
+                    ? "Username already taken" : "Email already registered");
+        }
+        metrics.stop(sample, "register", "insert");
+        return savedUser;
     }
 
     public Optional<User> findByEmail(String email) {
@@ -45,24 +78,44 @@ public class UserService {
             null,
             token,
             user.id(),
-            new java.util.Date(System.currentTimeMillis() + 86400000)
+            new Date(System.currentTimeMillis() + 86400000)
         );
-        return tokenRepository.save(verificationToken);
+        Timer.Sample sample = metrics.start();
+        VerificationToken saved = tokenRepository.insert(verificationToken);
+        metrics.stop(sample, "register", "token-save");
+        return saved;
     }
 
-    public Optional<VerificationToken> getVerificationToken(String token) {
-        return tokenRepository.findByToken(token);
+    /**
+     * Deletes the token and returns it, or returns empty if it is unknown, expired or was already used.
+     */
+    public Optional<VerificationToken> consumeVerificationToken(String token) {
+        Timer.Sample sample = metrics.start();
+        Optional<VerificationToken> consumed = tokenRepository.deleteByTokenAndExpiryDateAfter(token, new Date());
+        metrics.stop(sample, "verify", "token-consume");
+        return consumed;
     }
 
-    public void enableUser(User user) {
-        User enabledUser = new User(
-            user.id(),
-            user.username(),
-            user.email(),
-            user.password(),
-            true,
-            user.roles()
-        );
-        userRepository.save(enabledUser);
+    /**
+     * Sets {@code enabled} on the user document without rewriting it.
+     *
+     * @return false if no user has this id
+     */
+    public boolean enableUser(String userId) {
+        Timer.Sample sample = metrics.start();
+        boolean enabled = userRepository.enableById(userId).isPresent();
+        metrics.stop(sample, "verify", "enable");
+        return enabled;
+    }
+
+    /**
+     * Deletes the user and their verification tokens, and invalidates every access and refresh
+     * token issued to them.
+     */
+    public void deleteUser(User user) {
+        userRepository.delete(user);
+        tokenRepository.deleteByUserIdIn(List.of(user.id()));
+        refreshTokenService.revokeAll(user.id());
+        revocationList.revokeUser(user.id());
     }
 }
@@ -0,0 +1,302 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserTransferRecord;
+import com.dhillon.authapi.repository.DuplicateKeys;
+import com.dhillon.authapi.repository.UserRepository;
+import com.dhillon.authapi.security.BoundedPasswordEncoder;
+import com.dhillon.authapi.security.PasswordHashingPolicy;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Bulk user import and export as newline-delimited JSON, one {@link UserTransferRecord} per line.
+ * Imports are read, checked and written in batches: while one batch is inserted the next is
+ * hashed on a dedicated fork-join pool, so at most two batches are in memory and a slow database
+ * slows down reading the request rather than letting it pile up.
+ */
+@Service
+public class UserTransferService {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder hashingEncoder;
+    private final PasswordHashingPolicy hashingPolicy;
+    private final AuthMetrics metrics;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+
+    public UserTransferService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                               PasswordHashingPolicy hashingPolicy, AuthMetrics metrics,
+                               @Value("${user-import.batch-size}") int batchSize,
+                               @Value("${user-import.hashing-threads}") int hashingThreads) {
+        this.userRepository = userRepository;
+        // Hash on our own pool; going through the bounded login pool would queue behind (and starve) logins
+        this.hashingEncoder = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.delegate() : passwordEncoder;
+        this.hashingPolicy = hashingPolicy;
+        this.metrics = metrics;
+        this.hashingPool = new ForkJoinPool(hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors());
+        this.batchSize = batchSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Imports the users in {@code in}. Each rejected line is reported on {@code out} as
+     * {@code {"line":n,"email":...,"error":...}} as soon as it is known, followed by a final
+     * {@code {"imported":n,"failed":n}} line.
+     */
+    public Summary importUsers(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Report report = new Report(out);
+        CompletableFuture<List<Pending>> hashing = CompletableFuture.completedFuture(List.of());
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            Pending pending = parse(lineNumber, line, report);
+            if (pending != null) {
+                batch.add(pending);
+            }
+            if (batch.size() == batchSize) {
+                hashing = hashThenWrite(hashing, batch, report);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        hashing = hashThenWrite(hashing, batch, report);
+        write(hashing.join(), report);
+        return report.finish();
+    }
+
+    /**
+     * Writes every user to {@code out} from a cursor, so memory use does not grow with the collection.
+     */
+    public long exportUsers(OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<User> users = userRepository.streamAllBy()) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                out.write(MAPPER.writeValueAsBytes(UserTransferRecord.of(iterator.next())));
+                out.write('\n');
+                exported++;
+            }
+        }
+        out.flush();
+        return exported;
+    }
+
+    public record Summary(long imported, long failed) {}
+
+    /**
+     * Checks {@code batch} against the users already stored and starts hashing it, then writes the
+     * previous batch while that runs.
+     */
+    private CompletableFuture<List<Pending>> hashThenWrite(CompletableFuture<List<Pending>> previous, List<Pending> batch,
+                                                           Report report) throws IOException {
+        List<Pending> unique = dedupe(batch, report);
+        CompletableFuture<List<Pending>> next = CompletableFuture.supplyAsync(() -> hash(unique), hashingPool);
+        write(previous.join(), report);
+        return next;
+    }
+
+    private Pending parse(long line, String json, Report report) throws IOException {
+        UserTransferRecord record;
+        try {
+            record = MAPPER.readValue(json, UserTransferRecord.class);
+        } catch (JsonProcessingException e) {
+            report.failed(line, null, "Malformed record: " + e.getOriginalMessage());
+            return null;
+        }
+        String error = validate(record);
+        if (error != null) {
+            report.failed(line, record.email(), error);
+            return null;
+        }
+        return new Pending(line, record);
+    }
+
+    private String validate(UserTransferRecord record) {
+        if (record.email() == null || record.email().isBlank()) {
+            return "email is required";
+        }
+        if (record.username() == null || record.username().isBlank()) {
+            return "username is required";
+        }
+        if ((record.password() == null) == (record.passwordHash() == null)) {
+            return "Exactly one of password and passwordHash is required";
+        }
+        if (record.passwordHash() != null && !hashingPolicy.isSupportedHash(record.passwordHash())) {
+            return "passwordHash must be a BCrypt hash or an Argon2 hash within password-hashing.argon2.max-memory";
+        }
+        if (record.id() != null && !ObjectId.isValid(record.id())) {
+            return "id must be a 24-character hex ObjectId";
+        }
+        return null;
+    }
+
+    /**
+     * Drops records whose email or username repeats within the batch or is already taken. Clashes
+     * with a batch still being written are left to the unique indexes.
+     */
+    private List<Pending> dedupe(List<Pending> batch, Report report) throws IOException {
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        Set<String> emails = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        List<Pending> unique = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            if (!emails.add(pending.record().email())) {
+                report.failed(pending.line(), pending.record().email(), "Email repeated in the import");
+            } else if (!usernames.add(pending.record().username())) {
+                report.failed(pending.line(), pending.record().email(), "Username repeated in the import");
+            } else {
+                unique.add(pending);
+            }
+        }
+        Timer.Sample sample = metrics.start();
+        Set<String> takenEmails = new HashSet<>();
+        Set<String> takenUsernames = new HashSet<>();
+        for (User existing : userRepository.findIdentitiesByEmailInOrUsernameIn(emails, usernames)) {
+            takenEmails.add(existing.email());
+            takenUsernames.add(existing.username());
+        }
+        metrics.stop(sample, "import", "lookup");
+        List<Pending> available = new ArrayList<>(unique.size());
+        for (Pending pending : unique) {
+            if (takenEmails.contains(pending.record().email())) {
+                report.failed(pending.line(), pending.record().email(), "Email already registered");
+            } else if (takenUsernames.contains(pending.record().username())) {
+                report.failed(pending.line(), pending.record().email(), "Username already taken");
+            } else {
+                available.add(pending);
+            }
+        }
+        return available;
+    }
+
+    private List<Pending> hash(List<Pending> batch) {
+        Timer.Sample sample = metrics.start();
+        List<Pending> hashed = batch.parallelStream().map(this::toUser).toList();
+        metrics.stop(sample, "import", "hash");
+        return hashed;
+    }
+
+    private Pending toUser(Pending pending) {
+        UserTransferRecord record = pending.record();
+        String passwordHash = record.passwordHash() != null ? record.passwordHash() : hashingEncoder.encode(record.password());
+        return pending.withUser(new User(
+                record.id() != null ? record.id() : new ObjectId().toHexString(),
+                record.username(),
+                record.email(),
+                passwordHash,
+                record.enabled() == null || record.enabled(),
+                record.roles()
+        ));
+    }
+
+    private void write(List<Pending> batch, Report report) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<User> users = batch.stream().map(Pending::user).toList();
+        Timer.Sample sample = metrics.start();
+        Map<Integer, BulkWriteError> failures = userRepository.bulkInsert(users);
+        metrics.stop(sample, "import", "insert");
+        for (int i = 0; i < batch.size(); i++) {
+            BulkWriteError failure = failures.get(i);
+            if (failure == null) {
+                report.imported++;
+            } else {
+                report.failed(batch.get(i).line(), users.get(i).email(), describe(failure));
+            }
+        }
+        report.flush();
+    }
+
+    private static String describe(BulkWriteError failure) {
+        return switch (DuplicateKeys.index(failure).orElse("")) {
+            case "username" -> "Username already taken";
+            case "email" -> "Email already registered";
+            case DuplicateKeys.ID_INDEX -> "id already exists";
+            default -> failure.getMessage();
+        };
+    }
+
+    private record Pending(long line, UserTransferRecord record, User user) {
+        Pending(long line, UserTransferRecord record) {
+            this(line, record, null);
+        }
+
+        Pending withUser(User user) {
+            return new Pending(line, record, user);
+        }
+    }
+
+    private static final class Report {
+        private final OutputStream out;
+        private long imported;
+        private long failed;
+
+        Report(OutputStream out) {
+            this.out = out;
+        }
+
+        void failed(long line, String email, String error) throws IOException {
+            failed++;
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("line", line);
+            entry.put("email", email);
+            entry.put("error", error);
+            writeLine(entry);
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        Summary finish() throws IOException {
+            Summary summary = new Summary(imported, failed);
+            writeLine(summary);
+            flush();
+            return summary;
+        }
+
+        private void writeLine(Object entry) throws IOException {
+            out.write(MAPPER.writeValueAsBytes(entry));
+            out.write('\n');
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.dhillon.authapi;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
+import com.dhillon.authapi.model.UserTransferRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+public class AuthApiRuntimeHintsTest {
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @Test
+    void testRecordsCanBeBoundThroughTheirConstructorsAndAccessors() throws NoSuchMethodException {
+        new AuthApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        for (Class<?> type : new Class<?>[] {User.class, UserCredentials.class, UserTransferRecord.class}) {
+            Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(type).test(hints), type.getName());
+            Assertions.assertTrue(RuntimeHintsPredicates.reflection()
+                    .onConstructor(type.getDeclaredConstructors()[0]).test(hints), type.getName());
+        }
+        Assertions.assertTrue(RuntimeHintsPredicates.reflection().onMethod(User.class.getMethod("email")).test(hints));
+    }
+}
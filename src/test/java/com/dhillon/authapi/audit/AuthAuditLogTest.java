@@ -0,0 +1,140 @@
+package com.dhillon.authapi.audit;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AuthAuditLogTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Logger auditLogger = (Logger) LoggerFactory.getLogger("auth.audit");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attach() {
+        appender.start();
+        auditLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detach() {
+        auditLogger.detachAppender(appender);
+    }
+
+    @Test
+    void testWritesEventsAndSummarisesRepeatedFailures() throws Exception {
+        AuthAuditLog auditLog = new AuthAuditLog(new SimpleMeterRegistry(), 64, "", 2, 60000);
+        auditLog.record(AuthEventType.LOGIN_SUCCESS, AuthAuditLog.SUCCESS, "userid", "user@email.com", "10.0.0.1");
+        for (int i = 0; i < 5; i++) {
+            auditLog.record(AuthEventType.LOGIN_FAILURE, "failed", null, i < 4 ? "victim@email.com" : "other\"\n@email.com", "10.0.0.2");
+        }
+        auditLog.record(AuthEventType.TOKEN_REJECTED, "expired", "userid", null, "10.0.0.1");
+        auditLog.shutdown();
+
+        List<JsonNode> lines = lines();
+        Assertions.assertEquals(5, lines.size());
+        JsonNode success = lines.get(0);
+        Assertions.assertEquals("login-success", success.get("event").asText());
+        Assertions.assertEquals("userid", success.get("userId").asText());
+        Assertions.assertEquals("10.0.0.1", success.get("ip").asText());
+        Assertions.assertTrue(success.has("ts"));
+        Assertions.assertEquals("failed", lines.get(1).get("outcome").asText());
+        Assertions.assertFalse(lines.get(1).has("userId"));
+        Assertions.assertEquals("token-rejected", lines.get(3).get("event").asText());
+        JsonNode summary = lines.get(4);
+        Assertions.assertEquals("login-failure", summary.get("event").asText());
+        Assertions.assertEquals(3, summary.get("suppressed").asLong());
+        Assertions.assertEquals(2, summary.get("topEmails").get("victim@email.com").asLong());
+        Assertions.assertEquals(1, summary.get("topEmails").get("other\"\n@email.com").asLong());
+        Assertions.assertEquals(3, summary.get("topIps").get("10.0.0.2").asLong());
+    }
+
+    @Test
+    void testSamplesPerEventType() throws Exception {
+        AuthAuditLog auditLog = new AuthAuditLog(new SimpleMeterRegistry(), 64, "login-success=0, register=1", 100, 60000);
+        for (int i = 0; i < 10; i++) {
+            auditLog.record(AuthEventType.LOGIN_SUCCESS, AuthAuditLog.SUCCESS, "userid", null, null);
+        }
+        auditLog.record(AuthEventType.REGISTER, AuthAuditLog.SUCCESS, "userid", "user@email.com", null);
+        auditLog.shutdown();
+
+        Assertions.assertEquals(List.of("register"), lines().stream().map(line -> line.get("event").asText()).toList());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new AuthAuditLog(new SimpleMeterRegistry(), 64, "login=0.5", 100, 60000));
+    }
+
+    @Test
+    void testRingRejectsEventsWhenFull() {
+        AuthEventRing ring = new AuthEventRing(3);
+        Assertions.assertEquals(4, ring.capacity());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(ring.offer(AuthEventType.VERIFY, "success", "user" + i, null, null, i));
+        }
+        Assertions.assertFalse(ring.offer(AuthEventType.VERIFY, "success", "user4", null, null, 4));
+
+        List<String> drained = new ArrayList<>();
+        Assertions.assertEquals(4, ring.drain(slot -> drained.add(slot.userId)));
+        Assertions.assertEquals(List.of("user0", "user1", "user2", "user3"), drained);
+        Assertions.assertTrue(ring.offer(AuthEventType.VERIFY, "success", "user4", null, null, 4));
+        Assertions.assertEquals(1, ring.size());
+    }
+
+    @Test
+    void testRingKeepsEveryEventFromConcurrentProducersInOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20000;
+        AuthEventRing ring = new AuthEventRing(64);
+        long[] next = new long[producers];
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String producer = Integer.toString(p);
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(AuthEventType.LOGIN_FAILURE, "failed", producer, null, null, i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        long consumed = 0;
+        while (consumed < (long) producers * perProducer) {
+            int drained = ring.drain(slot -> {
+                int producer = Integer.parseInt(slot.userId);
+                if (slot.timestamp != next[producer]++) {
+                    outOfOrder.set(true);
+                }
+            });
+            if (drained == 0) {
+                Thread.yield();
+            }
+            consumed += drained;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertFalse(outOfOrder.get());
+        Assertions.assertEquals(0, ring.size());
+    }
+
+    private List<JsonNode> lines() throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (ILoggingEvent event : appender.list) {
+            lines.add(MAPPER.readTree(event.getFormattedMessage()));
+        }
+        return lines;
+    }
+}
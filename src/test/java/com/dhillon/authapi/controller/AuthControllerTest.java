@@ -1,10 +1,19 @@
 package com.dhillon.authapi.controller;
 
+import com.dhillon.authapi.audit.AuthAuditLog;
+import com.dhillon.authapi.metrics.AuthMetrics;
 import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.UserCredentials;
 import com.dhillon.authapi.model.VerificationToken;
 import com.dhillon.authapi.repository.UserRepository;
 import com.dhillon.authapi.security.JwtUtil;
+import com.dhillon.authapi.security.PasswordHashingRejectedException;
+import com.dhillon.authapi.security.TokenRevocationList;
+import com.dhillon.authapi.security.VerifiedToken;
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import com.dhillon.authapi.service.DuplicateUserException;
 import com.dhillon.authapi.service.EmailService;
+import com.dhillon.authapi.service.RefreshTokenService;
 import com.dhillon.authapi.service.UserService;
 import com.dhillon.authapi.service.CustomUserDetailsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -16,15 +25,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @AutoConfigureMockMvc(addFilters = false)
@@ -40,11 +52,21 @@ public class AuthControllerTest {
     @MockBean
     private JwtUtil jwtUtil;
     @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+    @MockBean
     private AuthenticationManager authenticationManager;
     @MockBean
     private UserRepository userRepository;
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
+    @MockBean
+    private AuthMetrics authMetrics;
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+    @MockBean
+    private AuthAuditLog authAuditLog;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -52,7 +74,6 @@ public class AuthControllerTest {
     @Test
     void testRegister() throws Exception {
         User user = new User(null, "testuser", "test@email.com", "password", true, null);
-        Mockito.when(userService.findByEmail(user.email())).thenReturn(Optional.empty());
         Mockito.when(userService.registerUser(Mockito.any())).thenReturn(user);
         Mockito.when(userService.createVerificationToken(Mockito.any(), Mockito.anyString())).thenReturn(
                 new VerificationToken(null, UUID.randomUUID().toString(), "userid", new java.util.Date()));
@@ -67,25 +88,33 @@ public class AuthControllerTest {
     @Test
     void testVerify() throws Exception {
         VerificationToken token = new VerificationToken("tokenid", "sometoken", "userid", new java.util.Date());
-        User user = new User("userid", "testuser", "test@email.com", "password", true, null);
-        Mockito.when(userService.getVerificationToken("sometoken")).thenReturn(Optional.of(token));
-        Mockito.when(userRepository.findById("userid")).thenReturn(Optional.of(user));
-        Mockito.doNothing().when(userService).enableUser(user);
+        Mockito.when(userService.consumeVerificationToken("sometoken")).thenReturn(Optional.of(token));
+        Mockito.when(userService.enableUser("userid")).thenReturn(true);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/auth/verify")
                 .param("token", "sometoken"))
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
+    @Test
+    void testVerifyRejectsUsedOrExpiredToken() throws Exception {
+        Mockito.when(userService.consumeVerificationToken("sometoken")).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/auth/verify")
+                .param("token", "sometoken"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Invalid verification token"));
+        Mockito.verify(userService, Mockito.never()).enableUser(Mockito.anyString());
+    }
+
     @Test
     void testLogin() throws Exception {
-        User user = new User("userid", "testuser", "test@email.com", "password", true, null);
-        Mockito.when(userService.findByEmail("test@email.com")).thenReturn(Optional.of(user));
+        UserCredentials user = new UserCredentials("userid", "test@email.com", null, true, Set.of("ROLE_USER"));
         Authentication authentication = Mockito.mock(Authentication.class);
-        UserDetails userDetails = Mockito.mock(UserDetails.class);
         Mockito.when(authenticationManager.authenticate(Mockito.any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
-        Mockito.when(authentication.getPrincipal()).thenReturn(userDetails);
-        Mockito.when(jwtUtil.generateToken(Mockito.anyString(), Mockito.anyString())).thenReturn("jwtToken");
+        Mockito.when(authentication.getPrincipal()).thenReturn(user);
+        Mockito.when(jwtUtil.generateToken(Mockito.anyString(), Mockito.anyString(), Mockito.any())).thenReturn("jwtToken");
+        Mockito.when(refreshTokenService.issue("userid")).thenReturn("refreshToken");
 
         String json = "{" +
                 "\"email\":\"test@email.com\"," +
@@ -99,8 +128,7 @@ public class AuthControllerTest {
     @Test
     void testRegisterDuplicateUsername() throws Exception {
         User user = new User(null, "testuser", "unique@email.com", "password", true, null);
-        Mockito.when(userService.findByEmail(user.email())).thenReturn(Optional.empty());
-        Mockito.when(userService.findByUsername(user.username())).thenReturn(Optional.of(user));
+        Mockito.when(userService.registerUser(Mockito.any())).thenThrow(new DuplicateUserException("Username already taken"));
         mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(user)))
@@ -111,7 +139,7 @@ public class AuthControllerTest {
     @Test
     void testRegisterDuplicateEmail() throws Exception {
         User user = new User(null, "uniqueuser", "test@email.com", "password", true, null);
-        Mockito.when(userService.findByEmail(user.email())).thenReturn(Optional.of(user));
+        Mockito.when(userService.registerUser(Mockito.any())).thenThrow(new DuplicateUserException("Email already registered"));
         mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/register")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(user)))
@@ -121,7 +149,8 @@ public class AuthControllerTest {
 
     @Test
     void testLoginInvalidCredentials() throws Exception {
-        Mockito.when(userService.findByEmail("wrong@email.com")).thenReturn(Optional.empty());
+        Mockito.when(authenticationManager.authenticate(Mockito.any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new UsernameNotFoundException("User not found"));
         String json = "{" +
                 "\"email\":\"wrong@email.com\"," +
                 "\"password\":\"wrongpass\"}";
@@ -134,8 +163,8 @@ public class AuthControllerTest {
 
     @Test
     void testLoginDisabledUser() throws Exception {
-        User user = new User("userid", "testuser", "test@email.com", "password", false, null);
-        Mockito.when(userService.findByEmail("test@email.com")).thenReturn(Optional.of(user));
+        Mockito.when(authenticationManager.authenticate(Mockito.any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new DisabledException("User is disabled"));
         String json = "{" +
                 "\"email\":\"test@email.com\"," +
                 "\"password\":\"password\"}";
@@ -148,13 +177,12 @@ public class AuthControllerTest {
 
     @Test
     void testLoginReturnsJwtToken() throws Exception {
-        User user = new User("userid", "testuser", "test@email.com", "password", true, null);
-        Mockito.when(userService.findByEmail("test@email.com")).thenReturn(Optional.of(user));
+        UserCredentials user = new UserCredentials("userid", "test@email.com", null, true, Set.of("ROLE_USER"));
         Authentication authentication = Mockito.mock(Authentication.class);
-        UserDetails userDetails = Mockito.mock(UserDetails.class);
         Mockito.when(authenticationManager.authenticate(Mockito.any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
-        Mockito.when(authentication.getPrincipal()).thenReturn(userDetails);
-        Mockito.when(jwtUtil.generateToken(Mockito.anyString(), Mockito.anyString())).thenReturn("jwtToken");
+        Mockito.when(authentication.getPrincipal()).thenReturn(user);
+        Mockito.when(jwtUtil.generateToken(Mockito.anyString(), Mockito.anyString(), Mockito.any())).thenReturn("jwtToken");
+        Mockito.when(refreshTokenService.issue("userid")).thenReturn("refreshToken");
         String json = "{" +
                 "\"email\":\"test@email.com\"," +
                 "\"password\":\"password\"}";
@@ -162,6 +190,65 @@ public class AuthControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(json))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.token").value("jwtToken"));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.token").value("jwtToken"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.refreshToken").value("refreshToken"));
+    }
+
+    @Test
+    void testRefreshRotatesToken() throws Exception {
+        UserCredentials user = new UserCredentials("userid", "test@email.com", null, true, Set.of("ROLE_USER"));
+        Mockito.when(refreshTokenService.rotate("oldRefreshToken"))
+                .thenReturn(Optional.of(new RefreshTokenService.Rotation(user, "newRefreshToken")));
+        Mockito.when(jwtUtil.generateToken("userid", "test@email.com", Set.of("ROLE_USER"))).thenReturn("jwtToken");
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"oldRefreshToken\"}"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.token").value("jwtToken"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.refreshToken").value("newRefreshToken"));
+    }
+
+    @Test
+    void testRefreshRejectsUsedToken() throws Exception {
+        Mockito.when(refreshTokenService.rotate("usedRefreshToken")).thenReturn(Optional.empty());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"usedRefreshToken\"}"))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Invalid refresh token"));
+    }
+
+    @Test
+    void testLogoutRevokesAccessAndRefreshToken() throws Exception {
+        VerifiedToken token = new VerifiedToken("userid", "test@email.com", Instant.now(),
+                Instant.now().plusSeconds(900), Set.of("ROLE_USER"), "tokenid");
+        Mockito.when(jwtUtil.verify("jwtToken")).thenReturn(Optional.of(token));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/logout")
+                .header("Authorization", "Bearer jwtToken")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"refreshToken\"}"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Mockito.verify(tokenRevocationList).revoke(token);
+        Mockito.verify(refreshTokenService).revoke("refreshToken", "userid");
+    }
+
+    @Test
+    void testLogoutRejectsInvalidToken() throws Exception {
+        Mockito.when(jwtUtil.verify("badToken")).thenReturn(Optional.empty());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/logout")
+                .header("Authorization", "Bearer badToken"))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+        Mockito.verifyNoInteractions(tokenRevocationList);
+    }
+
+    @Test
+    void testRegisterRejectedWhenHashingSaturated() throws Exception {
+        User user = new User(null, "testuser", "test@email.com", "password", true, null);
+        Mockito.when(userService.registerUser(Mockito.any())).thenThrow(new PasswordHashingRejectedException(1));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(user)))
+                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
     }
 }
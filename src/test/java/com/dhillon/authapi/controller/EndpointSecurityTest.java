@@ -0,0 +1,154 @@
+package com.dhillon.authapi.controller;
+
+import com.dhillon.authapi.audit.AuthAuditLog;
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.repository.UserRepository;
+import com.dhillon.authapi.repository.inmemory.InMemoryUserRepository;
+import com.dhillon.authapi.repository.inmemory.InMemoryVerificationTokenRepository;
+import com.dhillon.authapi.repository.inmemory.UserDirectory;
+import com.dhillon.authapi.security.EmailPasswordAuthenticationProvider;
+import com.dhillon.authapi.security.JwtKeyRing;
+import com.dhillon.authapi.security.JwtUtil;
+import com.dhillon.authapi.security.PasswordHashingExecutor;
+import com.dhillon.authapi.security.PasswordHashingPolicy;
+import com.dhillon.authapi.security.SecurityConfig;
+import com.dhillon.authapi.security.SigningKeyStore;
+import com.dhillon.authapi.security.TokenIntrospector;
+import com.dhillon.authapi.security.TokenRevocationList;
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import com.dhillon.authapi.service.CustomUserDetailsService;
+import com.dhillon.authapi.service.RefreshTokenService;
+import com.dhillon.authapi.service.UserService;
+import com.dhillon.authapi.service.UserTransferService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs the admin, introspection and metrics endpoints behind the real security chain and JWT filter.
+ */
+@WebMvcTest({AdminUserController.class, IntrospectionController.class})
+@Import({SecurityConfig.class, EndpointSecurityTest.Tokens.class})
+public class EndpointSecurityTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Value("${management.server.port}")
+    private int managementPort;
+
+    @MockBean
+    private UserTransferService transferService;
+    @MockBean
+    private TokenIntrospector introspector;
+    @MockBean
+    private UserRepository userRepository;
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+    @MockBean
+    private AuthMetrics authMetrics;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+    @MockBean
+    private AuthAuditLog authAuditLog;
+    @MockBean
+    private PasswordHashingPolicy passwordHashingPolicy;
+    @MockBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @MockBean
+    private EmailPasswordAuthenticationProvider emailPasswordAuthenticationProvider;
+
+    @TempDir
+    Path path;
+
+    @TestConfiguration
+    static class Tokens {
+        @Bean
+        JwtUtil jwtUtil() {
+            return new JwtUtil(new JwtKeyRing(SigningKeyStore.inMemory(), "ReplaceThisWithAStrongSecretKey", 604800000, 3600000, 60000), 60000);
+        }
+
+        @Bean
+        VerifiedTokenCache verifiedTokenCache(JwtUtil jwtUtil) {
+            return new VerifiedTokenCache(jwtUtil, 1000);
+        }
+    }
+
+    @Test
+    void testSelfRegisteredUserCannotClaimAdmin() throws Exception {
+        UserDirectory directory = new UserDirectory(path.toString(), false);
+        InMemoryUserRepository users = new InMemoryUserRepository(directory);
+        UserService userService = new UserService(users, new InMemoryVerificationTokenRepository(directory),
+                new BCryptPasswordEncoder(4), Mockito.mock(AuthMetrics.class),
+                Mockito.mock(RefreshTokenService.class), Mockito.mock(TokenRevocationList.class));
+        User registered = userService.registerUser(
+                new User(null, "mallory", "mallory@email.com", "password", true, Set.of("ROLE_ADMIN")));
+        userService.enableUser(registered.id());
+        User stored = users.findById(registered.id()).orElseThrow();
+        Assertions.assertEquals(User.DEFAULT_ROLES, stored.roles());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/users/export")
+                .header("Authorization", "Bearer " + jwtUtil.generateToken(stored.id(), stored.email(), stored.roles())))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        Mockito.verifyNoInteractions(transferService);
+    }
+
+    @Test
+    void testAdminCanExport() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/users/export")
+                .header("Authorization", "Bearer " + jwtUtil.generateToken("adminid", "admin@email.com", Set.of("ROLE_ADMIN"))))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Mockito.verify(transferService).exportUsers(Mockito.any());
+    }
+
+    @Test
+    void testIntrospectRequiresIntrospectRole() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/introspect")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"token\"]"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/introspect")
+                .header("Authorization", "Bearer " + jwtUtil.generateToken("userid", "user@email.com", User.DEFAULT_ROLES))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"token\"]"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        Mockito.verifyNoInteractions(introspector);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/introspect")
+                .header("Authorization", "Bearer " + jwtUtil.generateToken("gatewayid", "gateway@email.com", Set.of("ROLE_INTROSPECT")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"token\"]"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        Mockito.verify(introspector).introspect(Mockito.eq(List.of("token")), Mockito.any());
+    }
+
+    @Test
+    void testMetricsAreOnlyOpenOnManagementPort() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        // Past the security chain; this slice serves no actuator endpoints
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus").with(request -> {
+                    request.setLocalPort(managementPort);
+                    return request;
+                }))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+}
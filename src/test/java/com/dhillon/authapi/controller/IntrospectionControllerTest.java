@@ -0,0 +1,86 @@
+package com.dhillon.authapi.controller;
+
+import com.dhillon.authapi.audit.AuthAuditLog;
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.security.JwtUtil;
+import com.dhillon.authapi.security.TokenIntrospector;
+import com.dhillon.authapi.security.TokenRevocationList;
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import com.dhillon.authapi.service.CustomUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@AutoConfigureMockMvc(addFilters = false)
+@WebMvcTest(IntrospectionController.class)
+@TestPropertySource(properties = {"introspection.max-tokens=2", "introspection.max-token-length=16"})
+public class IntrospectionControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TokenIntrospector introspector;
+    @MockBean
+    private JwtUtil jwtUtil;
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+    @MockBean
+    private AuthMetrics authMetrics;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+    @MockBean
+    private AuthAuditLog authAuditLog;
+
+    @Test
+    void testIntrospectStreamsResults() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("[{\"active\":true,\"status\":\"active\"},{\"active\":false,\"status\":\"invalid\"}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(introspector).introspect(Mockito.eq(List.of("one", "two")), Mockito.any(OutputStream.class));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/introspect")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"one\",\"two\"]"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].active").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("invalid"));
+    }
+
+    @Test
+    void testIntrospectRejectsOversizedBatch() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/introspect")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"one\",\"two\",\"three\"]"))
+                .andExpect(MockMvcResultMatchers.status().isPayloadTooLarge())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("At most 2 tokens per request"));
+        Mockito.verifyNoInteractions(introspector);
+    }
+
+    @Test
+    void testIntrospectRejectsMalformedBody() throws Exception {
+        for (String body : new String[] {"{\"token\":\"one\"}", "[\"one\",1]", "[\"one\"", "[\"" + "x".repeat(17) + "\"]"}) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/introspect")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(body))
+                    .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$.error").value("Expected a JSON array of tokens"));
+        }
+        Mockito.verifyNoInteractions(introspector);
+    }
+}
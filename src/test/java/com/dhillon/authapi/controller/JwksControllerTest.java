@@ -0,0 +1,59 @@
+package com.dhillon.authapi.controller;
+
+import com.dhillon.authapi.audit.AuthAuditLog;
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.security.JwtKeyRing;
+import com.dhillon.authapi.security.TokenRevocationList;
+import com.dhillon.authapi.security.VerifiedTokenCache;
+import com.dhillon.authapi.service.CustomUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@AutoConfigureMockMvc(addFilters = false)
+@WebMvcTest(JwksController.class)
+public class JwksControllerTest {
+    private static final JwtKeyRing.Jwks JWKS = new JwtKeyRing.Jwks("{\"keys\":[]}", "\"etag\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JwtKeyRing keyRing;
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+    @MockBean
+    private CustomUserDetailsService customUserDetailsService;
+    @MockBean
+    private AuthMetrics authMetrics;
+    @MockBean
+    private TokenRevocationList tokenRevocationList;
+    @MockBean
+    private AuthAuditLog authAuditLog;
+
+    @Test
+    void testJwksIsCacheable() throws Exception {
+        Mockito.when(keyRing.jwks()).thenReturn(JWKS);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/.well-known/jwks.json"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"etag\""))
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=900, public"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.keys").isArray());
+    }
+
+    @Test
+    void testJwksNotModified() throws Exception {
+        Mockito.when(keyRing.jwks()).thenReturn(JWKS);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/.well-known/jwks.json")
+                .header("If-None-Match", "\"etag\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+}
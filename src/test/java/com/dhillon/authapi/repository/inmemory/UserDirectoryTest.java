@@ -0,0 +1,152 @@
+package com.dhillon.authapi.repository.inmemory;
+
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.VerificationToken;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class UserDirectoryTest {
+    @TempDir
+    Path path;
+
+    @Test
+    void testEnforcesUniqueEmailAndUsername() throws IOException {
+        UserDirectory directory = open();
+        directory.insert(user("1", "user", "test@email.com"));
+
+        DuplicateKeyException email = Assertions.assertThrows(DuplicateKeyException.class,
+                () -> directory.insert(user("2", "other", "test@email.com")));
+        DuplicateKeyException username = Assertions.assertThrows(DuplicateKeyException.class,
+                () -> directory.insert(user("3", "user", "other@email.com")));
+
+        Assertions.assertTrue(email.getMessage().contains("index: email"));
+        Assertions.assertTrue(username.getMessage().contains("index: username"));
+        Assertions.assertEquals(1, directory.userCount());
+    }
+
+    @Test
+    void testSaveMovesIndexesAndSharesRoleSets() throws IOException {
+        UserDirectory directory = open();
+        User first = directory.insert(user("1", "user", "test@email.com"));
+        User second = directory.insert(user("2", "other", "other@email.com"));
+
+        directory.save(new User("1", "renamed", "renamed@email.com", "hash", true, Set.of("ROLE_USER")));
+
+        Assertions.assertTrue(directory.findByEmail("test@email.com").isEmpty());
+        Assertions.assertTrue(directory.findByUsername("user").isEmpty());
+        Assertions.assertEquals("1", directory.findByEmail("renamed@email.com").orElseThrow().id());
+        Assertions.assertSame(first.roles(), second.roles());
+    }
+
+    @Test
+    void testReloadsFromLogAndSnapshot() throws IOException {
+        UserDirectory directory = open();
+        directory.insert(user("1", "user", "test@email.com"));
+        directory.insert(user("2", "other", "other@email.com"));
+        directory.saveToken(new VerificationToken(null, "token", "1", new Date(System.currentTimeMillis() + 60000)), false);
+        directory.snapshot();
+        directory.enable("1");
+        directory.delete("2");
+        directory.insert(user("3", "third", "third@email.com"));
+
+        UserDirectory reloaded = open();
+
+        Assertions.assertTrue(reloaded.findById("1").orElseThrow().enabled());
+        Assertions.assertTrue(reloaded.findById("2").isEmpty());
+        Assertions.assertEquals("3", reloaded.findByUsername("third").orElseThrow().id());
+        Assertions.assertEquals("1", reloaded.consumeToken("token", new Date()).orElseThrow().userId());
+        Assertions.assertTrue(reloaded.consumeToken("token", new Date()).isEmpty());
+    }
+
+    @Test
+    void testIgnoresTornLogTail() throws IOException {
+        UserDirectory directory = open();
+        directory.insert(user("1", "user", "test@email.com"));
+        directory.insert(user("2", "other", "other@email.com"));
+        Path segment;
+        try (Stream<Path> files = Files.list(path)) {
+            segment = files.filter(file -> file.getFileName().toString().contains(".wal.")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        UserDirectory reloaded = open();
+
+        Assertions.assertTrue(reloaded.findById("1").isPresent());
+        Assertions.assertTrue(reloaded.findById("2").isEmpty());
+        reloaded.insert(user("2", "other", "other@email.com"));
+        Assertions.assertEquals(2, open().userCount());
+    }
+
+    @Test
+    void testRefusesCorruptRecordBeforeNewestSegment() throws IOException {
+        UserDirectory directory = open();
+        directory.insert(user("1", "user", "test@email.com"));
+        directory.insert(user("2", "other", "other@email.com"));
+        open().insert(user("3", "third", "third@email.com"));
+        Path segment;
+        try (Stream<Path> files = Files.list(path)) {
+            segment = files.filter(file -> file.getFileName().toString().contains(".wal.")).sorted().findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), channel.size() - 3);
+        }
+
+        IOException error = Assertions.assertThrows(IOException.class, this::open);
+
+        Assertions.assertTrue(error.getMessage().contains(segment.getFileName().toString()));
+    }
+
+    @Test
+    void testExpiredTokensAreNotConsumed() throws IOException {
+        UserDirectory directory = open();
+        directory.saveToken(new VerificationToken("1", "expired", "user", new Date(System.currentTimeMillis() - 1000)), false);
+
+        Assertions.assertTrue(directory.consumeToken("expired", new Date()).isEmpty());
+        directory.snapshot();
+        Assertions.assertTrue(directory.findToken("expired").isEmpty());
+    }
+
+    @Test
+    void testIndexesUnverifiedUsersAndTokensByUser() throws IOException {
+        UserDirectory directory = open();
+        directory.insert(user("1", "first", "first@email.com"));
+        directory.insert(user("2", "second", "second@email.com"));
+        directory.insert(user("3", "third", "third@email.com"));
+        directory.insert(user("4", "fourth", "fourth@email.com"));
+        directory.enable("2");
+        Date expiry = new Date(System.currentTimeMillis() + 60000);
+        directory.saveToken(new VerificationToken("a", "first-token", "1", expiry), false);
+        directory.saveToken(new VerificationToken("b", "third-token", "3", expiry), false);
+        directory.saveToken(new VerificationToken("b", "moved-token", "4", expiry), true);
+
+        Assertions.assertEquals(List.of("1", "3"), directory.findUnverifiedBetween(null, "4", 10).stream().map(User::id).toList());
+        Assertions.assertEquals(List.of("3"), directory.findUnverifiedBetween("1", "9", 1).stream().map(User::id).toList());
+        Assertions.assertEquals(List.of(), directory.findUnverifiedBetween("4", "1", 10));
+        Assertions.assertEquals(List.of("first-token"), directory.tokenValuesOf("1"));
+        Assertions.assertEquals(List.of(), directory.tokenValuesOf("3"));
+        Assertions.assertEquals(List.of("moved-token"), open().tokenValuesOf("4"));
+    }
+
+    private UserDirectory open() throws IOException {
+        return new UserDirectory(path.toString(), false);
+    }
+
+    private static User user(String id, String username, String email) {
+        return new User(id, username, email, "hash", false, Set.of("ROLE_USER"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.repository.UserRepository;
+import com.dhillon.authapi.repository.inmemory.InMemoryUserRepository;
+import com.dhillon.authapi.repository.inmemory.UserDirectory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+public class EmailPasswordAuthenticationProviderTest {
+    @TempDir
+    Path path;
+
+    private final PasswordEncoder encoder = new PasswordHashingPolicy("bcrypt", 250, 5, 4, 16, 1024, 4096, 1, 1).createEncoder();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserRepository userRepository;
+    private EmailPasswordAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        userRepository = new InMemoryUserRepository(new UserDirectory(path.toString(), false));
+        provider = new EmailPasswordAuthenticationProvider(userRepository, encoder, new AuthMetrics(meterRegistry));
+    }
+
+    @Test
+    void testOutdatedHashIsReplacedOnSuccessfulLogin() {
+        String legacy = new BCryptPasswordEncoder(4).encode("password");
+        User user = userRepository.insert(new User(null, "user", "user@email.com", legacy, true, Set.of("ROLE_USER")));
+
+        Assertions.assertThrows(BadCredentialsException.class, () -> login("wrong"));
+        Assertions.assertEquals(legacy, userRepository.findById(user.id()).orElseThrow().password());
+
+        login("password");
+        String upgraded = userRepository.findById(user.id()).orElseThrow().password();
+        Assertions.assertTrue(upgraded.startsWith("{bcrypt}$2a$05$"), upgraded);
+
+        login("password");
+        Assertions.assertEquals(upgraded, userRepository.findById(user.id()).orElseThrow().password());
+        Assertions.assertEquals(1, meterRegistry.counter("auth.outcome", "flow", "rehash", "outcome", "success").count());
+    }
+
+    private void login(String password) {
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("user@email.com", password));
+    }
+}
@@ -0,0 +1,138 @@
+package com.dhillon.authapi.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+
+public class JwtUtilTest {
+    private static final String SECRET = "ReplaceThisWithAStrongSecretKey";
+    private static final Set<String> ROLES = Set.of("ROLE_USER");
+
+    private final JwtKeyRing keyRing = keyRing();
+    private final JwtUtil jwtUtil = new JwtUtil(keyRing, 60000);
+
+    @Test
+    void testVerifyReturnsClaims() {
+        String token = jwtUtil.generateToken("userid", "test@email.com", ROLES);
+
+        Optional<VerifiedToken> verified = jwtUtil.verify(token);
+
+        Assertions.assertTrue(verified.isPresent());
+        Assertions.assertEquals("userid", verified.get().userId());
+        Assertions.assertEquals("test@email.com", verified.get().email());
+        Assertions.assertNotNull(verified.get().issuedAt());
+        Assertions.assertTrue(verified.get().expiresAt().isAfter(verified.get().issuedAt()));
+        Assertions.assertEquals("userid", jwtUtil.getUserIdFromToken(token));
+    }
+
+    @Test
+    void testAccessTokenCarriesRoles() {
+        String token = jwtUtil.generateToken("userid", "test@email.com", Set.of("ROLE_USER", "ROLE_ADMIN"));
+
+        VerifiedToken verified = jwtUtil.verify(token).orElseThrow();
+
+        Assertions.assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), verified.roles());
+        Assertions.assertNull(jwtUtil.verify(withoutRoles(keyRing)).orElseThrow().roles());
+    }
+
+    @Test
+    void testVerifyRejectsTamperedPayload() {
+        String token = jwtUtil.generateToken("userid", "test@email.com", ROLES);
+        String forged = new JwtUtil(keyRing, 60000).generateToken("otheruser", "test@email.com", ROLES);
+        String[] parts = token.split("\\.");
+        String[] forgedParts = forged.split("\\.");
+
+        Assertions.assertFalse(jwtUtil.validateToken(parts[0] + "." + forgedParts[1] + "." + parts[2]));
+    }
+
+    @Test
+    void testVerifyRejectsOtherKeyRing() {
+        String token = new JwtUtil(keyRing(), 60000).generateToken("userid", "test@email.com", ROLES);
+
+        Assertions.assertTrue(jwtUtil.decode(token).isEmpty());
+    }
+
+    @Test
+    void testVerifyRejectsMalformedTokens() {
+        Assertions.assertFalse(jwtUtil.validateToken(null));
+        Assertions.assertFalse(jwtUtil.validateToken(""));
+        Assertions.assertFalse(jwtUtil.validateToken("not-a-token"));
+        Assertions.assertFalse(jwtUtil.validateToken("a.b.c.d"));
+        Assertions.assertFalse(jwtUtil.validateToken("%%%.%%%.%%%"));
+    }
+
+    @Test
+    void testExpiredTokenIsDecodedButNotVerified() {
+        String token = new JwtUtil(keyRing, -60000).generateToken("userid", "test@email.com", ROLES);
+
+        Assertions.assertTrue(jwtUtil.decode(token).isPresent());
+        Assertions.assertTrue(jwtUtil.decode(token).get().isExpired());
+        Assertions.assertTrue(jwtUtil.verify(token).isEmpty());
+    }
+
+    @Test
+    void testRejectsHs256Tokens() {
+        String token = Jwts.builder()
+                .setSubject("userid")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS256, SECRET.getBytes())
+                .compact();
+
+        Assertions.assertTrue(jwtUtil.decode(token).isEmpty());
+    }
+
+    @Test
+    void testTokensOutliveKeyRotation() throws InterruptedException {
+        JwtKeyRing rotating = new JwtKeyRing(SigningKeyStore.inMemory(), SECRET, 1, 0, 60000);
+        JwtUtil rotatingJwtUtil = new JwtUtil(rotating, 60000);
+        String token = rotatingJwtUtil.generateToken("userid", "test@email.com", ROLES);
+        String firstKid = rotating.signingKey().kid();
+
+        Thread.sleep(5);
+        rotating.refresh();
+
+        Assertions.assertNotEquals(firstKid, rotating.signingKey().kid());
+        Assertions.assertTrue(rotatingJwtUtil.verify(token).isPresent());
+        Assertions.assertTrue(rotating.jwks().json().contains(firstKid));
+    }
+
+    @Test
+    void testUnknownKidIsReloadedInBackground() throws InterruptedException {
+        SigningKeyStore store = SigningKeyStore.inMemory();
+        JwtKeyRing verifying = new JwtKeyRing(store, SECRET, 604800000, 3600000, 60000);
+        JwtUtil verifyingJwtUtil = new JwtUtil(verifying, 60000);
+        verifying.signingKey();
+        // Another node's key, saved to the shared store after this ring has loaded it
+        SigningKeyStore otherStore = SigningKeyStore.inMemory();
+        String token = new JwtUtil(new JwtKeyRing(otherStore, SECRET, 604800000, 3600000, 60000), 60000)
+                .generateToken("userid", "test@email.com", ROLES);
+        otherStore.loadAll().forEach(store::save);
+
+        Assertions.assertTrue(verifyingJwtUtil.verify(token).isEmpty());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (verifyingJwtUtil.verify(token).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(verifyingJwtUtil.verify(token).isPresent());
+    }
+
+    // Signed like an access token from before roles were added to the claims
+    static String withoutRoles(JwtKeyRing keyRing) {
+        JwtKeyRing.ActiveKey key = keyRing.signingKey();
+        return Jwts.builder()
+                .setHeaderParam("kid", key.kid())
+                .setSubject("userid")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.ES256, key.privateKey())
+                .compact();
+    }
+
+    private static JwtKeyRing keyRing() {
+        return new JwtKeyRing(SigningKeyStore.inMemory(), SECRET, 604800000, 3600000, 60000);
+    }
+}
@@ -0,0 +1,59 @@
+package com.dhillon.authapi.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class PasswordHashingPolicyTest {
+    private static final long MS = 1_000_000;
+
+    @Test
+    void testCalibrationPicksTheCostClosestToTargetWithoutExceedingIt() {
+        Assertions.assertEquals(12, PasswordHashingPolicy.bcryptStrength(250 * MS, 60 * MS, 10, 16));
+        Assertions.assertEquals(10, PasswordHashingPolicy.bcryptStrength(250 * MS, 400 * MS, 10, 16));
+        Assertions.assertEquals(16, PasswordHashingPolicy.bcryptStrength(250 * MS, MS, 10, 16));
+        Assertions.assertEquals(4, PasswordHashingPolicy.argon2Iterations(250 * MS, 60 * MS));
+        Assertions.assertEquals(1, PasswordHashingPolicy.argon2Iterations(250 * MS, 400 * MS));
+    }
+
+    @Test
+    void testBCryptPolicyUpgradesLegacyWeakerAndArgon2Hashes() {
+        PasswordEncoder encoder = policy("bcrypt", 5).createEncoder();
+        String hash = encoder.encode("password");
+        String legacy = new BCryptPasswordEncoder(5).encode("password");
+        String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password");
+        String argon2 = "{argon2}" + new Argon2PasswordEncoder(16, 32, 1, 1024, 1).encode("password");
+
+        Assertions.assertTrue(hash.startsWith("{bcrypt}$2a$05$"));
+        Assertions.assertFalse(encoder.upgradeEncoding(hash));
+        for (String stored : new String[] {legacy, weaker, argon2}) {
+            Assertions.assertTrue(encoder.matches("password", stored), stored);
+            Assertions.assertFalse(encoder.matches("wrong", stored), stored);
+            Assertions.assertTrue(encoder.upgradeEncoding(stored), stored);
+        }
+    }
+
+    @Test
+    void testArgon2PolicyRefusesHashesAboveTheMemoryBound() {
+        PasswordHashingPolicy policy = policy("argon2", 4);
+        PasswordEncoder encoder = policy.createEncoder();
+        String hash = encoder.encode("password");
+        String oversized = "{argon2}" + new Argon2PasswordEncoder(16, 32, 1, 8192, 1).encode("password");
+
+        Assertions.assertTrue(hash.startsWith("{argon2}$argon2id$v=19$m=1024,t=2,p=1$"), hash);
+        Assertions.assertTrue(encoder.matches("password", hash));
+        Assertions.assertFalse(encoder.upgradeEncoding(hash));
+        Assertions.assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+        Assertions.assertFalse(encoder.matches("password", oversized));
+        Assertions.assertTrue(policy.isSupportedHash(hash));
+        Assertions.assertFalse(policy.isSupportedHash(oversized));
+        Assertions.assertTrue(policy.isSupportedHash(new BCryptPasswordEncoder(4).encode("password")));
+        Assertions.assertFalse(policy.isSupportedHash("md5:abc"));
+    }
+
+    private static PasswordHashingPolicy policy(String algorithm, int bcryptStrength) {
+        return new PasswordHashingPolicy(algorithm, 250, bcryptStrength, 4, 16, 1024, 4096, 1, 2);
+    }
+}
@@ -0,0 +1,129 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RateLimitFilterTest {
+    private final RateLimitFilter filter = new RateLimitFilter(Mockito.mock(AuthMetrics.class),
+            "3/60000", "2/60000", "1/60000", "1/60000", "2/60000", 1000);
+
+    @Test
+    void testLoginLimitedPerAccountAcrossIps() throws Exception {
+        Assertions.assertEquals(200, login("10.0.0.1", "Test@Email.com").getStatus());
+        Assertions.assertEquals(200, login("10.0.0.2", "test@email.com").getStatus());
+
+        MockHttpServletResponse limited = login("10.0.0.3", "test@email.com");
+
+        Assertions.assertEquals(429, limited.getStatus());
+        Assertions.assertEquals("30", limited.getHeader("Retry-After"));
+        Assertions.assertEquals(200, login("10.0.0.3", "other@email.com").getStatus());
+    }
+
+    @Test
+    void testLoginLimitedPerIp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(200, login("10.0.0.1", "user" + i + "@email.com").getStatus());
+        }
+        Assertions.assertEquals(429, login("10.0.0.1", "user3@email.com").getStatus());
+    }
+
+    @Test
+    void testBodyIsStillReadableDownstream() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletRequest request = request("/api/auth/login", "10.0.0.1", "{\"email\":\"test@email.com\"}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        byte[] forwarded = chain.getRequest().getInputStream().readAllBytes();
+        Assertions.assertEquals("{\"email\":\"test@email.com\"}", new String(forwarded, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testBufferedBodyNotifiesReadListener() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/api/auth/login", "10.0.0.1", "{\"email\":\"test@email.com\"}"),
+                new MockHttpServletResponse(), chain);
+        ServletInputStream in = chain.getRequest().getInputStream();
+        List<String> events = new ArrayList<>();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        Assertions.assertEquals(List.of("{\"email\":\"test@email.com\"}", "done"), events);
+    }
+
+    @Test
+    void testIpv6ClientsLimitedPerPrefix() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(200, login("2001:db8:0:1::" + (i + 1), "user" + i + "@email.com").getStatus());
+        }
+        Assertions.assertEquals(429, login("2001:db8:0:1:ffff::1", "user3@email.com").getStatus());
+        Assertions.assertEquals(200, login("2001:db8:0:2::1", "user4@email.com").getStatus());
+    }
+
+    @Test
+    void testIntrospectLimitedPerIpWithBodyUnread() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            MockHttpServletRequest request = request("/api/auth/introspect", "10.0.0.1", "[\"token\"]");
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            Assertions.assertSame(request, chain.getRequest());
+        }
+
+        MockHttpServletResponse limited = new MockHttpServletResponse();
+        filter.doFilter(request("/api/auth/introspect", "10.0.0.1", "[]"), limited, new MockFilterChain());
+
+        Assertions.assertEquals(429, limited.getStatus());
+        Assertions.assertNotNull(limited.getHeader("Retry-After"));
+    }
+
+    @Test
+    void testOtherEndpointsAreNotLimited() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("/api/auth/refresh", "10.0.0.1", "{}"), response, new MockFilterChain());
+            Assertions.assertEquals(200, response.getStatus());
+        }
+    }
+
+    private MockHttpServletResponse login(String ip, String email) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("/api/auth/login", ip, "{\"email\":\"" + email + "\",\"password\":\"password\"}"),
+                response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String ip, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
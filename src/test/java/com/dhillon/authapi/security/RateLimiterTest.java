@@ -0,0 +1,76 @@
+package com.dhillon.authapi.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RateLimiterTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final RateLimiter limiter = new RateLimiter(new RateLimitPolicy(5, Duration.ofSeconds(60)), 1000, clock::get);
+
+    @Test
+    void testAllowsBurstThenRefillsAtSteadyRate() {
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire("client"));
+        }
+        long wait = limiter.tryAcquire("client");
+        Assertions.assertEquals(TimeUnit.SECONDS.toNanos(12), wait);
+
+        clock.addAndGet(wait);
+        Assertions.assertEquals(0, limiter.tryAcquire("client"));
+        Assertions.assertTrue(limiter.tryAcquire("client") > 0);
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("client");
+        }
+        Assertions.assertTrue(limiter.tryAcquire("client") > 0);
+        Assertions.assertEquals(0, limiter.tryAcquire("other"));
+    }
+
+    @Test
+    void testConcurrentCallersNeverExceedCapacity() throws Exception {
+        int threads = 16;
+        int keys = 64;
+        int attemptsPerKey = 50;
+        RateLimiter shared = new RateLimiter(new RateLimitPolicy(10, Duration.ofSeconds(60)), keys, clock::get);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < attemptsPerKey; attempt++) {
+                        for (int key = 0; key < keys; key++) {
+                            if (shared.tryAcquire("key" + key) == 0) {
+                                allowed.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(10 * keys, allowed.get());
+    }
+}
@@ -0,0 +1,89 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.repository.RevokedTokenRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+public class TokenIntrospectorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Set<String> ROLES = Set.of("ROLE_USER");
+
+    private final JwtKeyRing keyRing = new JwtKeyRing(SigningKeyStore.inMemory(), "ReplaceThisWithAStrongSecretKey", 604800000, 3600000, 60000);
+    private final JwtUtil jwtUtil = new JwtUtil(keyRing, 60000);
+    private final TokenRevocationList revocationList = new TokenRevocationList(
+            Mockito.mock(RevokedTokenRepository.class), new SimpleMeterRegistry(), 60000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TokenIntrospector introspector = new TokenIntrospector(new VerifiedTokenCache(jwtUtil, 1000), revocationList,
+            new AuthMetrics(meterRegistry), 2, 2);
+
+    @AfterEach
+    void shutdown() {
+        introspector.shutdown();
+    }
+
+    @Test
+    void testReportsEachTokenInOrder() throws IOException {
+        String active = jwtUtil.generateToken("active", "active@email.com", Set.of("ROLE_USER"));
+        String expired = new JwtUtil(keyRing, -60000).generateToken("expired", "expired@email.com", ROLES);
+        String revoked = jwtUtil.generateToken("revoked", "revoked@email.com", Set.of("ROLE_USER"));
+        revocationList.revoke(jwtUtil.verify(revoked).orElseThrow());
+
+        String withoutRoles = JwtUtilTest.withoutRoles(keyRing);
+
+        JsonNode results = introspect(Arrays.asList(active, expired, revoked, "not.a.token", null, withoutRoles, active));
+
+        Assertions.assertEquals(List.of("active", "expired", "revoked", "invalid", "invalid", "invalid", "active"), statuses(results));
+        JsonNode first = results.get(0);
+        Assertions.assertTrue(first.get("active").asBoolean());
+        Assertions.assertEquals("active", first.get("sub").asText());
+        Assertions.assertEquals("active@email.com", first.get("email").asText());
+        Assertions.assertEquals("ROLE_USER", first.get("roles").get(0).asText());
+        Assertions.assertTrue(first.get("exp").asLong() > System.currentTimeMillis() / 1000);
+        Assertions.assertFalse(results.get(1).get("active").asBoolean());
+        Assertions.assertEquals("expired@email.com", results.get(1).get("email").asText());
+        Assertions.assertFalse(results.get(3).has("sub"));
+        Assertions.assertFalse(results.get(5).has("sub"));
+        Assertions.assertEquals(2, meterRegistry.counter("auth.outcome", "flow", "introspect", "outcome", "active").count());
+    }
+
+    @Test
+    void testLargeBatchKeepsOrderAcrossChunks() throws IOException {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            tokens.add(jwtUtil.generateToken("user" + i, "user" + i + "@email.com", ROLES));
+        }
+
+        JsonNode results = introspect(tokens);
+
+        Assertions.assertEquals(25, results.size());
+        for (int i = 0; i < 25; i++) {
+            Assertions.assertEquals("user" + i, results.get(i).get("sub").asText());
+        }
+        Assertions.assertEquals("[]", introspect(List.of()).toString());
+    }
+
+    private JsonNode introspect(List<String> tokens) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        introspector.introspect(tokens, out);
+        return MAPPER.readTree(out.toByteArray());
+    }
+
+    private static List<String> statuses(JsonNode results) {
+        List<String> statuses = new ArrayList<>();
+        results.forEach(result -> statuses.add(result.get("status").asText()));
+        return statuses;
+    }
+}
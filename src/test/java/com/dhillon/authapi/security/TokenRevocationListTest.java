@@ -0,0 +1,58 @@
+package com.dhillon.authapi.security;
+
+import com.dhillon.authapi.model.RevokedToken;
+import com.dhillon.authapi.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+public class TokenRevocationListTest {
+    private final RevokedTokenRepository repository = Mockito.mock(RevokedTokenRepository.class);
+    private final TokenRevocationList revocationList = new TokenRevocationList(repository, new SimpleMeterRegistry(), 900000);
+
+    @Test
+    void testRevokedTokenIsRejectedImmediately() {
+        VerifiedToken token = token("userid", "tokenid", Instant.now());
+
+        revocationList.revoke(token);
+
+        Assertions.assertTrue(revocationList.isRevoked(token));
+        Assertions.assertFalse(revocationList.isRevoked(token("userid", "othertoken", Instant.now())));
+        Mockito.verify(repository).insert(Mockito.any(RevokedToken.class));
+    }
+
+    @Test
+    void testRevokeUserCoversEarlierTokensOnly() {
+        revocationList.revokeUser("userid");
+
+        Assertions.assertTrue(revocationList.isRevoked(token("userid", "old", Instant.now().minusSeconds(60))));
+        Assertions.assertFalse(revocationList.isRevoked(token("userid", "new", Instant.now().plusSeconds(2))));
+        Assertions.assertFalse(revocationList.isRevoked(token("otheruser", "old", Instant.now().minusSeconds(60))));
+    }
+
+    @Test
+    void testSyncAppliesRemoteRevocationsAndDropsExpiredOnes() {
+        Date now = new Date();
+        Mockito.when(repository.findByRevokedAtGreaterThanEqualAndExpiresAtAfterOrderByRevokedAtAsc(Mockito.any(), Mockito.any()))
+                .thenReturn(List.of(new RevokedToken("1", "remote", "userid", now, new Date(now.getTime() + 60000))))
+                .thenReturn(List.of());
+
+        revocationList.sync();
+        Assertions.assertTrue(revocationList.isRevoked(token("userid", "remote", Instant.now())));
+
+        revocationList.revoke(new VerifiedToken("userid", null, Instant.now(), Instant.now().minusSeconds(1), Set.of(), "expired"));
+        revocationList.sync();
+        Assertions.assertFalse(revocationList.isRevoked(token("userid", "expired", Instant.now())));
+        Assertions.assertTrue(revocationList.isRevoked(token("userid", "remote", Instant.now())));
+    }
+
+    private static VerifiedToken token(String userId, String tokenId, Instant issuedAt) {
+        return new VerifiedToken(userId, "test@email.com", issuedAt, issuedAt.plusSeconds(900), Set.of("ROLE_USER"), tokenId);
+    }
+}
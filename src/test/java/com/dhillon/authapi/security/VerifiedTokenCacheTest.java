@@ -0,0 +1,75 @@
+package com.dhillon.authapi.security;
+
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class VerifiedTokenCacheTest {
+    private final AtomicLong ticker = new AtomicLong();
+    private final JwtUtil jwtUtil = Mockito.mock(JwtUtil.class);
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(jwtUtil, 100, ticker::get);
+
+    @Test
+    void testSecondDecodeSkipsSignatureVerification() {
+        VerifiedToken verified = token(Instant.now().plusSeconds(60));
+        Mockito.when(jwtUtil.decode("token")).thenReturn(Optional.of(verified));
+
+        Assertions.assertEquals(Optional.of(verified), cache.verify("token"));
+        Assertions.assertEquals(Optional.of(verified), cache.verify("token"));
+
+        Mockito.verify(jwtUtil, Mockito.times(1)).decode("token");
+        Assertions.assertEquals(1, cache.stats().hitCount());
+        Assertions.assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void testEntryIsNotServedAfterTokenExpires() {
+        VerifiedToken verified = token(Instant.now().plusSeconds(60));
+        Mockito.when(jwtUtil.decode("token")).thenReturn(Optional.of(verified));
+        cache.decode("token");
+
+        ticker.addAndGet(Duration.ofSeconds(61).toNanos());
+        Mockito.when(jwtUtil.decode("token")).thenReturn(Optional.empty());
+
+        Assertions.assertTrue(cache.verify("token").isEmpty());
+        Mockito.verify(jwtUtil, Mockito.times(2)).decode("token");
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        Mockito.when(jwtUtil.decode("token")).thenReturn(Optional.of(token(Instant.now().minusSeconds(1))));
+
+        Assertions.assertTrue(cache.verify("token").isEmpty());
+        Assertions.assertTrue(cache.decode("token").isPresent());
+
+        Mockito.verify(jwtUtil, Mockito.times(2)).decode("token");
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testStatsAreBoundToMeterRegistry() {
+        Mockito.when(jwtUtil.decode("token")).thenReturn(Optional.of(token(Instant.now().plusSeconds(60))));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CaffeineCacheMetrics.monitor(registry, cache.nativeCache(), "verified-tokens");
+
+        cache.decode("token");
+        cache.decode("token");
+
+        Assertions.assertEquals(1, registry.get("cache.gets").tag("cache", "verified-tokens").tag("result", "hit")
+                .functionCounter().count());
+        Assertions.assertEquals(1, registry.get("cache.gets").tag("cache", "verified-tokens").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    private static VerifiedToken token(Instant expiresAt) {
+        return new VerifiedToken("user-1", "user@example.com", Instant.now(), expiresAt, Set.of("USER"), "jti-1");
+    }
+}
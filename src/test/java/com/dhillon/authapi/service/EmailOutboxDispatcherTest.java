@@ -0,0 +1,67 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.model.PendingEmail;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.List;
+
+public class EmailOutboxDispatcherTest {
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final EmailOutbox outbox = Mockito.mock(EmailOutbox.class);
+    private EmailOutboxDispatcher dispatcher;
+
+    @AfterEach
+    void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testDispatchSendsClaimedBatch() throws Exception {
+        List<PendingEmail> batch = List.of(pending("1", "a@email.com"), pending("2", "b@email.com"), pending("3", "c@email.com"));
+        Mockito.when(outbox.claimBatch(Mockito.anyInt())).thenReturn(batch);
+        dispatcher = newDispatcher(ServerSetupTest.SMTP.getPort());
+
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(3, greenMail.getReceivedMessages().length);
+        Assertions.assertEquals("Verify your email", greenMail.getReceivedMessages()[0].getSubject());
+        Mockito.verify(outbox).markSent(batch.subList(0, 2));
+        Mockito.verify(outbox).markSent(batch.subList(2, 3));
+        Mockito.verify(outbox, Mockito.never()).markFailed(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void testDispatchSchedulesRetryWhenServerUnavailable() {
+        PendingEmail email = pending("1", "a@email.com");
+        Mockito.when(outbox.claimBatch(Mockito.anyInt())).thenReturn(List.of(email));
+        dispatcher = newDispatcher(ServerSetupTest.SMTP.getPort() + 1);
+
+        dispatcher.dispatch();
+
+        Mockito.verify(outbox).markFailed(Mockito.eq(email), Mockito.anyString());
+        Mockito.verify(outbox, Mockito.never()).markSent(Mockito.any());
+    }
+
+    private EmailOutboxDispatcher newDispatcher(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        return new EmailOutboxDispatcher(outbox, mailSender, new SimpleMeterRegistry(), 50, 2, 2, false);
+    }
+
+    private static PendingEmail pending(String id, String to) {
+        return new PendingEmail(id, to, "Verify your email", "Click the link", PendingEmail.Status.SENDING, 0,
+                new Date(), "claim", null, new Date());
+    }
+}
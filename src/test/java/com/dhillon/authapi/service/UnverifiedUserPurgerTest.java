@@ -0,0 +1,118 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.model.JobCheckpoint;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.model.VerificationToken;
+import com.dhillon.authapi.repository.UserRepository;
+import com.dhillon.authapi.repository.VerificationTokenRepository;
+import com.dhillon.authapi.repository.inmemory.InMemoryUserRepository;
+import com.dhillon.authapi.repository.inmemory.InMemoryVerificationTokenRepository;
+import com.dhillon.authapi.repository.inmemory.UserDirectory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class UnverifiedUserPurgerTest {
+    private static final long DAY_MS = 86400000;
+
+    @TempDir
+    Path path;
+
+    private final JobCheckpointStore checkpoints = Mockito.mock(JobCheckpointStore.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserRepository userRepository;
+    private VerificationTokenRepository tokenRepository;
+    private UnverifiedUserPurger purger;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        UserDirectory directory = new UserDirectory(path.toString(), false);
+        userRepository = new InMemoryUserRepository(directory);
+        tokenRepository = new InMemoryVerificationTokenRepository(directory);
+        purger = new UnverifiedUserPurger(userRepository, tokenRepository, checkpoints, meterRegistry, 7 * DAY_MS, 2, 100000, 60000, false);
+        Mockito.when(checkpoints.advance(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    void shutdown() {
+        purger.shutdown();
+    }
+
+    @Test
+    void testDeletesOldUnverifiedUsersAndTheirTokens() {
+        User stale1 = user("stale1", 30, false);
+        User verified = user("verified", 20, true);
+        User stale2 = user("stale2", 10, false);
+        User stale3 = user("stale3", 9, false);
+        User recent = user("recent", 1, false);
+        token(stale1, "t1");
+        token(stale3, "t3");
+        token(recent, "t4");
+        checkpoint(null);
+
+        Assertions.assertEquals(3, purger.purge());
+
+        Assertions.assertEquals(Set.of(verified.id(), recent.id()),
+                Set.copyOf(userRepository.findAll().stream().map(User::id).toList()));
+        Assertions.assertEquals(List.of("t4"), tokenRepository.findAll().stream().map(VerificationToken::token).toList());
+        Assertions.assertEquals(3, meterRegistry.counter("user.purge.users").count());
+        Assertions.assertEquals(2, meterRegistry.counter("user.purge.tokens").count());
+        ArgumentCaptor<String> positions = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(checkpoints, Mockito.times(2)).advance(Mockito.eq(UnverifiedUserPurger.JOB), Mockito.any(), positions.capture(), Mockito.anyLong());
+        Assertions.assertEquals(stale2.id(), positions.getAllValues().get(0));
+        // The final checkpoint is the cutoff itself, before the recent user
+        Assertions.assertTrue(positions.getAllValues().get(1).compareTo(stale3.id()) > 0);
+        Assertions.assertTrue(positions.getAllValues().get(1).compareTo(recent.id()) < 0);
+        Mockito.verify(checkpoints).release(Mockito.eq(UnverifiedUserPurger.JOB), Mockito.any());
+    }
+
+    @Test
+    void testResumesFromCheckpoint() {
+        User before = user("before", 30, false);
+        User after = user("after", 10, false);
+        checkpoint(before.id());
+
+        Assertions.assertEquals(1, purger.purge());
+
+        Assertions.assertTrue(userRepository.findById(before.id()).isPresent());
+        Assertions.assertTrue(userRepository.findById(after.id()).isEmpty());
+    }
+
+    @Test
+    void testDoesNothingWhileAnotherNodeHoldsTheCheckpoint() {
+        User stale = user("stale", 30, false);
+        Mockito.when(checkpoints.claim(Mockito.any(), Mockito.any(), Mockito.anyLong())).thenReturn(Optional.empty());
+
+        Assertions.assertEquals(0, purger.purge());
+
+        Assertions.assertTrue(userRepository.findById(stale.id()).isPresent());
+        Mockito.verify(checkpoints, Mockito.never()).advance(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.anyLong());
+    }
+
+    private User user(String username, int ageDays, boolean enabled) {
+        String id = new ObjectId(new Date(System.currentTimeMillis() - ageDays * DAY_MS)).toHexString();
+        return userRepository.insert(new User(id, username, username + "@email.com", "hash", enabled, Set.of("ROLE_USER")));
+    }
+
+    private void token(User user, String token) {
+        tokenRepository.insert(new VerificationToken(null, token, user.id(), new Date(System.currentTimeMillis() + DAY_MS)));
+    }
+
+    private void checkpoint(String position) {
+        Mockito.when(checkpoints.claim(Mockito.any(), Mockito.any(), Mockito.anyLong()))
+                .thenReturn(Optional.of(new JobCheckpoint(UnverifiedUserPurger.JOB, position, "owner", new Date(), null)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.repository.UserRepository;
+import com.dhillon.authapi.repository.VerificationTokenRepository;
+import com.dhillon.authapi.repository.inmemory.InMemoryUserRepository;
+import com.dhillon.authapi.repository.inmemory.UserDirectory;
+import com.dhillon.authapi.security.TokenRevocationList;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class UserServiceTest {
+    @TempDir
+    Path path;
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+
+    @Test
+    void testMongoDuplicateKeyErrorNamesTheTakenField() {
+        UserService userService = userService(userRepository);
+
+        Mockito.when(userRepository.insert(Mockito.any(User.class))).thenThrow(mongoDuplicate("username"));
+        Assertions.assertEquals("Username already taken", register(userService).getMessage());
+
+        Mockito.when(userRepository.insert(Mockito.any(User.class))).thenThrow(mongoDuplicate("email"));
+        Assertions.assertEquals("Email already registered", register(userService).getMessage());
+    }
+
+    @Test
+    void testInMemoryStoreRaisesTheSameDuplicateKeyError() throws IOException {
+        UserService userService = userService(new InMemoryUserRepository(new UserDirectory(path.toString(), false)));
+        userService.registerUser(new User(null, "user", "user@email.com", "password", false, null));
+
+        DuplicateUserException username = Assertions.assertThrows(DuplicateUserException.class, () -> userService.registerUser(
+                new User(null, "user", "other@email.com", "password", false, null)));
+        DuplicateUserException email = Assertions.assertThrows(DuplicateUserException.class, () -> userService.registerUser(
+                new User(null, "other", "user@email.com", "password", false, null)));
+
+        Assertions.assertEquals("Username already taken", username.getMessage());
+        Assertions.assertEquals("Email already registered", email.getMessage());
+    }
+
+    private static UserService userService(UserRepository userRepository) {
+        return new UserService(userRepository, Mockito.mock(VerificationTokenRepository.class), new BCryptPasswordEncoder(4),
+                new AuthMetrics(new SimpleMeterRegistry()), Mockito.mock(RefreshTokenService.class),
+                Mockito.mock(TokenRevocationList.class));
+    }
+
+    private static DuplicateUserException register(UserService userService) {
+        return Assertions.assertThrows(DuplicateUserException.class, () -> userService.registerUser(
+                new User(null, "user", "user@email.com", "password", false, null)));
+    }
+
+    // What the driver reports for an insert rejected by a unique index, translated as Spring Data does
+    private static DataAccessException mongoDuplicate(String index) {
+        WriteError error = new WriteError(11000, "E11000 duplicate key error collection: authapi.users index: " + index
+                + " dup key: { " + index + ": \"taken\" }", new BsonDocument());
+        return new MongoExceptionTranslator().translateExceptionIfPossible(
+                new MongoWriteException(error, new ServerAddress()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.dhillon.authapi.service;
+
+import com.dhillon.authapi.metrics.AuthMetrics;
+import com.dhillon.authapi.model.User;
+import com.dhillon.authapi.repository.UserRepository;
+import com.dhillon.authapi.repository.inmemory.InMemoryUserRepository;
+import com.dhillon.authapi.repository.inmemory.UserDirectory;
+import com.dhillon.authapi.security.PasswordHashingPolicy;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class UserTransferServiceTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final BCryptPasswordEncoder ENCODER = new BCryptPasswordEncoder(4);
+    private static final PasswordHashingPolicy POLICY = new PasswordHashingPolicy("bcrypt", 250, 4, 4, 4, 1024, 4096, 1, 1);
+
+    @TempDir
+    Path path;
+
+    private final List<UserTransferService> services = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        services.forEach(UserTransferService::shutdown);
+    }
+
+    @Test
+    void testImportReportsEachRejectedLine() throws IOException {
+        UserRepository repository = repository("source");
+        repository.insert(new User(null, "existing", "existing@email.com", ENCODER.encode("password"), true, Set.of("ROLE_USER")));
+        String preHashed = ENCODER.encode("secret");
+        String input = String.join("\n",
+                "{\"username\":\"plain\",\"email\":\"plain@email.com\",\"password\":\"password\",\"roles\":[\"ROLE_USER\"]}",
+                "{\"username\":\"hashed\",\"email\":\"hashed@email.com\",\"passwordHash\":\"" + preHashed + "\",\"enabled\":false}",
+                "{\"username\":\"taken\",\"email\":\"existing@email.com\",\"password\":\"password\"}",
+                "{\"username\":\"plain\",\"email\":\"again@email.com\",\"password\":\"password\"}",
+                "",
+                "{\"username\":\"weak\",\"email\":\"weak@email.com\",\"passwordHash\":\"md5:abc\"}",
+                "not json");
+
+        List<JsonNode> report = importUsers(service(repository, 2), input);
+
+        Assertions.assertEquals(List.of(3L, 4L, 6L, 7L), report.subList(0, 4).stream().map(line -> line.get("line").asLong()).sorted().toList());
+        Assertions.assertEquals(2, report.get(4).get("imported").asLong());
+        Assertions.assertEquals(4, report.get(4).get("failed").asLong());
+        User plain = repository.findByEmail("plain@email.com").orElseThrow();
+        Assertions.assertTrue(ENCODER.matches("password", plain.password()));
+        Assertions.assertTrue(plain.enabled());
+        User hashed = repository.findByEmail("hashed@email.com").orElseThrow();
+        Assertions.assertEquals(preHashed, hashed.password());
+        Assertions.assertFalse(hashed.enabled());
+    }
+
+    @Test
+    void testExportCanBeImportedElsewhere() throws IOException {
+        UserRepository source = repository("source");
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            input.append("{\"username\":\"user").append(i).append("\",\"email\":\"user").append(i)
+                    .append("@email.com\",\"password\":\"password").append(i).append("\"}\n");
+        }
+        importUsers(service(source, 10), input.toString());
+
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        Assertions.assertEquals(25, service(source, 10).exportUsers(exported));
+        UserRepository target = repository("target");
+        List<JsonNode> report = importUsers(service(target, 10), exported.toString(StandardCharsets.UTF_8));
+
+        Assertions.assertEquals(List.of(MAPPER.readTree("{\"imported\":25,\"failed\":0}")), report);
+        User copied = target.findByUsername("user7").orElseThrow();
+        Assertions.assertEquals(source.findByUsername("user7").orElseThrow(), copied);
+        Assertions.assertTrue(ENCODER.matches("password7", copied.password()));
+    }
+
+    private UserTransferService service(UserRepository repository, int batchSize) {
+        UserTransferService service = new UserTransferService(repository, ENCODER, POLICY, Mockito.mock(AuthMetrics.class),
+                batchSize, 2);
+        services.add(service);
+        return service;
+    }
+
+    private UserRepository repository(String name) throws IOException {
+        return new InMemoryUserRepository(new UserDirectory(path.resolve(name).toString(), false));
+    }
+
+    private static List<JsonNode> importUsers(UserTransferService service, String input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.importUsers(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(MAPPER.readTree(line));
+        }
+        return lines;
+    }
+}